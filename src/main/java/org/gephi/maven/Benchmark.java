@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.gephi.maven.json.BenchmarkResult;
+
+/**
+ * Measure the startup time of the Gephi application without the plug-ins,
+ * with all of them and with each plug-in alone.
+ */
+@Mojo(name = "benchmark", aggregator = true, defaultPhase = LifecyclePhase.NONE)
+public class Benchmark extends AbstractMojo {
+
+    /**
+     * Output directory where the the Gephi application is created.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi")
+    private File gephiDirectory;
+
+    /**
+     * Branding token.
+     */
+    @Parameter(required = true, defaultValue = "gephi")
+    private String brandingToken;
+
+    /**
+     * List of plugin clusters.
+     */
+    @Parameter
+    private List<String> clusters;
+
+    /**
+     * If the executed project is a reactor project, this will contains the full
+     * list of projects in the reactor.
+     */
+    @Parameter(required = true, readonly = true, property = "reactorProjects")
+    private List<MavenProject> reactorProjects;
+
+    /**
+     * Folder of the user directories of the benchmarked configurations.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/benchmark")
+    private File benchmarkDirectory;
+
+    /**
+     * Number of measured launches per configuration.
+     */
+    @Parameter(defaultValue = "5", property = "gephi.benchmark.iterations")
+    private int iterations;
+
+    /**
+     * Number of launches per configuration before measuring, which aren't
+     * counted.
+     */
+    @Parameter(defaultValue = "1", property = "gephi.benchmark.warmup")
+    private int warmup;
+
+    /**
+     * Regular expression matching the console line printed when the startup
+     * is complete.
+     */
+    @Parameter(defaultValue = "(?i)window system shown", property = "gephi.benchmark.marker")
+    private String startupMarker;
+
+    /**
+     * Maximum duration in seconds of a launch.
+     */
+    @Parameter(defaultValue = "300", property = "gephi.benchmark.timeout")
+    private int timeout;
+
+    /**
+     * Measure each plug-in alone, in addition to the baseline and all
+     * plug-ins.
+     */
+    @Parameter(defaultValue = "true", property = "gephi.benchmark.perPlugin")
+    private boolean perPlugin;
+
+    /**
+     * JSON report of the startup times.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi-benchmark.json", property = "gephi.benchmark.report")
+    private File reportFile;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (iterations < 1) {
+            throw new MojoExecutionException("The number of iterations should be at least 1");
+        }
+        Pattern marker;
+        try {
+            marker = Pattern.compile(startupMarker);
+        } catch (PatternSyntaxException ex) {
+            throw new MojoExecutionException("The startup marker '" + startupMarker + "' isn't a valid regular expression", ex);
+        }
+
+        List<MavenProject> modules = new ArrayList<MavenProject>();
+        for (MavenProject proj : reactorProjects) {
+            if (proj.getPackaging().equals("nbm")) {
+                modules.add(proj);
+            }
+        }
+        if (modules.isEmpty()) {
+            throw new MojoExecutionException("No 'nbm' module found in the reactor");
+        }
+        List<String> codeNameBases = UserdirUtils.getCodeNameBases(modules);
+
+        GephiLauncher launcher = new GephiLauncher(gephiDirectory, brandingToken);
+        try {
+            launcher.setExtraClusters(clusters);
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed configuring Gephi", ex);
+        }
+        StartupTimer timer = new StartupTimer(marker, timeout * 1000L, getLog());
+
+        // Plugins are excluded by disabling their modules in the userdir, the
+        // clusters stay the same for all configurations
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        BenchmarkResult baseline = measure("baseline", Collections.<String>emptyList(), codeNameBases, launcher, timer);
+        results.add(baseline);
+        BenchmarkResult all = measure("all", codeNameBases, codeNameBases, launcher, timer);
+        results.add(all);
+        if (perPlugin && modules.size() > 1) {
+            Map<MavenProject, List<MavenProject>> tree = ModuleUtils.getModulesTree(modules, getLog());
+            for (Map.Entry<MavenProject, List<MavenProject>> entry : tree.entrySet()) {
+                List<String> enabled = new ArrayList<String>();
+                for (MavenProject module : entry.getValue()) {
+                    enabled.add(codeNameBases.get(modules.indexOf(module)));
+                }
+                results.add(measure(entry.getKey().getArtifactId(), enabled, codeNameBases, launcher, timer));
+            }
+        }
+
+        for (BenchmarkResult result : results) {
+            if (result != baseline) {
+                result.delta_median = result.median - baseline.median;
+            }
+        }
+        printResults(results);
+        writeReport(results);
+    }
+
+    private BenchmarkResult measure(String name, List<String> enabled, List<String> codeNameBases, GephiLauncher launcher, StartupTimer timer) throws MojoExecutionException {
+        File userdir = new File(benchmarkDirectory, name);
+        userdir.mkdirs();
+        try {
+            for (String codeNameBase : codeNameBases) {
+                UserdirUtils.setModuleEnabled(userdir, codeNameBase, enabled.contains(codeNameBase));
+            }
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed configuring the userdir '" + userdir.getAbsolutePath() + "'", ex);
+        }
+
+        // The application prints the startup steps and exits by itself once
+        // the startup is complete
+        List<String> args = Arrays.asList("-J-Dorg.netbeans.log.startup=print", "-J-Dnetbeans.close=true");
+        getLog().info("Benchmarking '" + name + "' (" + warmup + " warmup, " + iterations + " measured launches)");
+        List<Long> times = new ArrayList<Long>();
+        for (int i = 0; i < warmup + iterations; i++) {
+            long time = timer.measure(launcher.createCommandline(userdir, args));
+            if (time < 0) {
+                throw new MojoExecutionException("Gephi didn't complete its startup within " + timeout + " seconds in configuration '" + name
+                        + "', check that the startup marker '" + startupMarker + "' is printed on the console");
+            }
+            getLog().debug("Launch " + (i + 1) + ": " + time + " ms");
+            if (i >= warmup) {
+                times.add(time);
+            }
+        }
+
+        BenchmarkResult result = new BenchmarkResult();
+        result.configuration = name;
+        result.modules = enabled;
+        result.times = times;
+        result.median = StartupTimer.percentile(times, 50);
+        result.p90 = StartupTimer.percentile(times, 90);
+        result.min = Collections.min(times);
+        result.max = Collections.max(times);
+        return result;
+    }
+
+    private void printResults(List<BenchmarkResult> results) {
+        getLog().info(String.format("%-30s %8s %8s %8s %8s %8s", "Configuration", "Median", "P90", "Min", "Max", "Delta"));
+        for (BenchmarkResult result : results) {
+            getLog().info(String.format("%-30s %8d %8d %8d %8d %8s", result.configuration, result.median, result.p90, result.min, result.max,
+                    result.delta_median != null ? String.format("%+d", result.delta_median) : "-"));
+        }
+    }
+
+    private void writeReport(List<BenchmarkResult> results) throws MojoExecutionException {
+        if (reportFile.getParentFile() != null && reportFile.getParentFile().mkdirs()) {
+            getLog().debug("Folder '" + reportFile.getParentFile().getAbsolutePath() + "' created.");
+        }
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            FileWriter writer = new FileWriter(reportFile);
+            writer.append(gson.toJson(results));
+            writer.close();
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Error while writing the benchmark report '" + reportFile.getAbsolutePath() + "'", ex);
+        }
+        getLog().info("Benchmark report written to '" + reportFile.getAbsolutePath() + "'");
+    }
+}
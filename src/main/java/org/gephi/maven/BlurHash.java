@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Encoder for <a href="https://blurha.sh">BlurHash</a> placeholders.
+ * <p>
+ * A BlurHash is a short string representing a blurred version of an image,
+ * which clients can decode and display while the full image loads.
+ */
+public class BlurHash {
+
+    private static final String CHARACTERS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    /**
+     * Encode the given image. The image should already be small (e.g. 32x32)
+     * as every pixel is visited once per component.
+     *
+     * @param image image
+     * @param componentsX number of horizontal components, between 1 and 9
+     * @param componentsY number of vertical components, between 1 and 9
+     * @return blur hash
+     */
+    protected static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("The number of components should be between 1 and 9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        // Pixels in linear color space
+        double[] linear = new double[pixels.length * 3];
+        for (int i = 0; i < pixels.length; i++) {
+            linear[i * 3] = sRGBToLinear((pixels[i] >> 16) & 0xff);
+            linear[i * 3 + 1] = sRGBToLinear((pixels[i] >> 8) & 0xff);
+            linear[i * 3 + 2] = sRGBToLinear(pixels[i] & 0xff);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][3];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                double normalisation = (i == 0 && j == 0) ? 1 : 2;
+                double r = 0, g = 0, b = 0;
+                for (int y = 0; y < height; y++) {
+                    double basisY = Math.cos(Math.PI * j * y / height);
+                    for (int x = 0; x < width; x++) {
+                        double basis = basisY * Math.cos(Math.PI * i * x / width);
+                        int p = (y * width + x) * 3;
+                        r += basis * linear[p];
+                        g += basis * linear[p + 1];
+                        b += basis * linear[p + 2];
+                    }
+                }
+                double scale = normalisation / (width * height);
+                double[] factor = factors[j * componentsX + i];
+                factor[0] = r * scale;
+                factor[1] = g * scale;
+                factor[2] = b * scale;
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83((componentsX - 1) + (componentsY - 1) * 9, 1, hash);
+
+        double maximumValue;
+        if (factors.length > 1) {
+            double actualMaximumValue = 0;
+            for (int i = 1; i < factors.length; i++) {
+                for (double v : factors[i]) {
+                    actualMaximumValue = Math.max(actualMaximumValue, Math.abs(v));
+                }
+            }
+            int quantisedMaximumValue = (int) Math.max(0, Math.min(82, Math.floor(actualMaximumValue * 166 - 0.5)));
+            maximumValue = (quantisedMaximumValue + 1) / 166.0;
+            encode83(quantisedMaximumValue, 1, hash);
+        } else {
+            maximumValue = 1;
+            encode83(0, 1, hash);
+        }
+
+        double[] dc = factors[0];
+        encode83((linearToSRGB(dc[0]) << 16) + (linearToSRGB(dc[1]) << 8) + linearToSRGB(dc[2]), 4, hash);
+        for (int i = 1; i < factors.length; i++) {
+            double[] ac = factors[i];
+            int quantR = quantiseAC(ac[0], maximumValue);
+            int quantG = quantiseAC(ac[1], maximumValue);
+            int quantB = quantiseAC(ac[2], maximumValue);
+            encode83(quantR * 19 * 19 + quantG * 19 + quantB, 2, hash);
+        }
+        return hash.toString();
+    }
+
+    private static int quantiseAC(double value, double maximumValue) {
+        double v = value / maximumValue;
+        double signPow = Math.copySign(Math.pow(Math.abs(v), 0.5), v);
+        return (int) Math.max(0, Math.min(18, Math.floor(signPow * 9 + 9.5)));
+    }
+
+    private static double sRGBToLinear(int value) {
+        double v = value / 255.0;
+        if (v <= 0.04045) {
+            return v / 12.92;
+        }
+        return Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSRGB(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        if (v <= 0.0031308) {
+            return (int) (v * 12.92 * 255 + 0.5);
+        }
+        return (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(int value, int length, StringBuilder builder) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            builder.append(CHARACTERS.charAt(digit));
+        }
+    }
+}
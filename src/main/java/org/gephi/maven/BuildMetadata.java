@@ -17,6 +17,7 @@ package org.gephi.maven;
 
 import org.gephi.maven.json.PluginsMetadata;
 import org.gephi.maven.json.PluginMetadata;
+import org.gephi.maven.json.ImageManifest;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonIOException;
@@ -27,10 +28,12 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -38,6 +41,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -78,6 +82,12 @@ public class BuildMetadata extends AbstractMojo {
     @Parameter(required = true, readonly = true, property = "project")
     private MavenProject project;
 
+    /**
+     * The Maven session, scoping the manifest cache.
+     */
+    @Parameter(required = true, readonly = true, defaultValue = "${session}")
+    private MavenSession session;
+
     /**
      * Data format for <em>lastUpdated</em> field.
      */
@@ -89,6 +99,42 @@ public class BuildMetadata extends AbstractMojo {
     @Parameter(required = true)
     protected String metadataUrl;
 
+    /**
+     * Losslessly optimize the size of published screenshots and thumbnails.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.optimizeImages")
+    protected boolean optimizeImages;
+
+    /**
+     * Sizes, in pixels, of the resized variants created for each screenshot
+     * (e.g. <code>140,320,640,1280</code>). Each variant fits in a square of
+     * that size. No variants are created by default.
+     */
+    @Parameter(property = "gephi.imageVariantSizes")
+    protected int[] imageVariantSizes;
+
+    /**
+     * Pack the first thumbnail of each plugin into sprite atlases, grouped by
+     * category.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.thumbnailSprites")
+    protected boolean thumbnailSprites;
+
+    /**
+     * Maximum number of thumbnails in a single sprite atlas.
+     */
+    @Parameter(defaultValue = "100")
+    protected int spriteMaxThumbnails;
+
+    /**
+     * Store images in the <em>imgs</em> folder under a name derived from their
+     * content, so they can be served with immutable cache headers. Identical
+     * images are stored once and an <em>imgs/manifest.json</em> file lists live
+     * and orphaned files.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.contentHashedImages")
+    protected boolean contentHashedImages;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         String gephiVersion = (String) project.getProperties().get("gephi.version");
@@ -127,7 +173,10 @@ public class BuildMetadata extends AbstractMojo {
                 }
             }
 
-            ManifestUtils manifestUtils = new ManifestUtils(sourceManifestFile, getLog());
+            ManifestUtils manifestUtils = new ManifestUtils(sourceManifestFile, session, getLog());
+            File imagesFolder = new File(outputDirectory, "imgs");
+            ImageStore imageStore = contentHashedImages && !dryRun ? new ImageStore(imagesFolder, "imgs/", getLog()) : null;
+            ScreenshotUtils screenshotUtils = new ScreenshotUtils(optimizeImages, imageVariantSizes, imageStore, getLog());
 
             // Get all modules with dependencies
             Map<MavenProject, List<MavenProject>> tree = ModuleUtils.getModulesTree(modules, getLog());
@@ -172,6 +221,15 @@ public class BuildMetadata extends AbstractMojo {
                 getLog().debug("Create plugins.json");
             }
 
+            // Images of the published metadata, which may not be local
+            if (imageStore != null) {
+                imageStore.addPublished(pluginsMetadata.plugins);
+                ImageManifest publishedManifest = downloadImageManifest(gson);
+                if (publishedManifest != null) {
+                    imageStore.addPublished(publishedManifest);
+                }
+            }
+
             // Build metadata
             for (Map.Entry<MavenProject, List<MavenProject>> entry : tree.entrySet()) {
                 MavenProject topPlugin = entry.getKey();
@@ -213,7 +271,7 @@ public class BuildMetadata extends AbstractMojo {
                 pm.authors = MetadataUtils.getAuthors(topPlugin);
                 pm.last_update = dateFormat.format(new Date());
                 pm.readme = MetadataUtils.getReadme(topPlugin, getLog());
-                pm.images = ScreenshotUtils.copyScreenshots(topPlugin, new File(outputDirectory, "imgs" + File.separator + pm.id), "imgs" + "/" + pm.id + "/", getLog(), dryRun);
+                pm.images = screenshotUtils.copyScreenshots(topPlugin, new File(imagesFolder, pm.id), "imgs" + "/" + pm.id + "/", dryRun);
                 pm.homepage = MetadataUtils.getHomepage(topPlugin);
                 pm.sourcecode = MetadataUtils.getSourceCode(topPlugin, getLog());
 
@@ -231,6 +289,17 @@ public class BuildMetadata extends AbstractMojo {
                 }
             }
 
+            // Sprite atlases
+            if (thumbnailSprites && !dryRun) {
+                SpriteUtils spriteUtils = new SpriteUtils(spriteMaxThumbnails, optimizeImages, imageStore, getLog());
+                spriteUtils.createSprites(pluginsMetadata.plugins, outputDirectory, metadataUrl);
+            }
+
+            // Live and orphaned content-addressed images
+            if (imageStore != null) {
+                imageStore.writeManifest(new File(imagesFolder, "manifest.json"), pluginsMetadata.plugins);
+            }
+
             String json = gson.toJson(pluginsMetadata);
 
             if(!dryRun) {
@@ -248,4 +317,28 @@ public class BuildMetadata extends AbstractMojo {
             throw new MojoExecutionException("The project should be a reactor project");
         }
     }
+
+    /**
+     * Download the published images manifest, if any.
+     *
+     * @param gson gson
+     * @return manifest or null if it can't be read
+     */
+    private ImageManifest downloadImageManifest(Gson gson) {
+        try {
+            URL url = new URL(metadataUrl + "imgs/manifest.json");
+            URLConnection connection = url.openConnection();
+            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/537.11 (KHTML, like Gecko) Chrome/23.0.1271.95 Safari/537.11");
+            InputStreamReader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8);
+            try {
+                return gson.fromJson(reader, ImageManifest.class);
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            getLog().debug("No published images manifest found");
+            getLog().debug(e);
+            return null;
+        }
+    }
 }
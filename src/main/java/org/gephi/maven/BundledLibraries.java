@@ -0,0 +1,249 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Detects libraries bundled several times by the modules of a suite.
+ * <p>
+ * Bundled jars are identified by content hash, which finds exact duplicates,
+ * and by Maven coordinates, which also finds the same library in different
+ * versions.
+ */
+public class BundledLibraries {
+
+    private final Log log;
+
+    public BundledLibraries(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Inspect the NBMs of the suite's modules and return the duplicated
+     * libraries found. Modules whose NBM is missing or outdated are skipped.
+     *
+     * @param modules suite modules
+     * @return list of messages, empty if there are no duplicates
+     */
+    protected List<String> checkSuite(List<MavenProject> modules) {
+        Map<String, List<BundledJar>> jarsByModule = new LinkedHashMap<String, List<BundledJar>>();
+        for (MavenProject module : modules) {
+            File nbmFile = NbmUtils.getNbmFile(module);
+            if (!NbmUtils.isCurrent(module, nbmFile)) {
+                log.debug("The NBM file '" + nbmFile.getAbsolutePath() + "' doesn't exist or is outdated, its bundled libraries aren't checked");
+                continue;
+            }
+            try {
+                jarsByModule.put(module.getName(), readBundledJars(nbmFile));
+            } catch (IOException ex) {
+                log.warn("Can't read the NBM file '" + nbmFile.getAbsolutePath() + "'");
+                log.debug(ex);
+            }
+        }
+        return findDuplicates(jarsByModule);
+    }
+
+    /**
+     * Returns the duplicated libraries, by hash and by coordinates, and the
+     * bytes they waste.
+     *
+     * @param jarsByModule bundled jars, keyed by module name
+     * @return list of messages, empty if there are no duplicates
+     */
+    protected static List<String> findDuplicates(Map<String, List<BundledJar>> jarsByModule) {
+        Map<String, List<String>> modulesByHash = new LinkedHashMap<String, List<String>>();
+        Map<String, BundledJar> jarByHash = new LinkedHashMap<String, BundledJar>();
+        Map<String, Map<String, Set<String>>> versionsByCoordinates = new LinkedHashMap<String, Map<String, Set<String>>>();
+        for (Map.Entry<String, List<BundledJar>> entry : jarsByModule.entrySet()) {
+            for (BundledJar jar : entry.getValue()) {
+                if (!modulesByHash.containsKey(jar.hash)) {
+                    modulesByHash.put(jar.hash, new ArrayList<String>());
+                    jarByHash.put(jar.hash, jar);
+                }
+                modulesByHash.get(jar.hash).add(entry.getKey());
+                if (jar.coordinates != null) {
+                    if (!versionsByCoordinates.containsKey(jar.coordinates)) {
+                        versionsByCoordinates.put(jar.coordinates, new LinkedHashMap<String, Set<String>>());
+                    }
+                    Map<String, Set<String>> versions = versionsByCoordinates.get(jar.coordinates);
+                    if (!versions.containsKey(jar.version)) {
+                        versions.put(jar.version, new LinkedHashSet<String>());
+                    }
+                    versions.get(jar.version).add(entry.getKey());
+                }
+            }
+        }
+
+        List<String> result = new ArrayList<String>();
+        long wasted = 0;
+        for (Map.Entry<String, List<String>> entry : modulesByHash.entrySet()) {
+            List<String> modules = entry.getValue();
+            if (modules.size() > 1) {
+                BundledJar jar = jarByHash.get(entry.getKey());
+                long bytes = jar.size * (modules.size() - 1);
+                wasted += bytes;
+                result.add("The library '" + jar.name + "' is bundled by " + modules.size() + " modules " + modules + ", wasting " + NbmUtils.formatSize(bytes)
+                        + ". Consider moving it to a shared library module the others depend on");
+            }
+        }
+        for (Map.Entry<String, Map<String, Set<String>>> entry : versionsByCoordinates.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                result.add("The library '" + entry.getKey() + "' is bundled in different versions " + entry.getValue()
+                        + ". Consider moving a single version to a shared library module the others depend on");
+            }
+        }
+        if (wasted > 0) {
+            result.add("Duplicated libraries waste " + NbmUtils.formatSize(wasted) + " in the suite");
+        }
+        return result;
+    }
+
+    /**
+     * Read the libraries bundled in the NBM, their hash and their Maven
+     * coordinates if known.
+     *
+     * @param nbmFile NBM file
+     * @return list of bundled jars
+     * @throws IOException if the NBM can't be read
+     */
+    protected static List<BundledJar> readBundledJars(File nbmFile) throws IOException {
+        List<BundledJar> result = new ArrayList<BundledJar>();
+        ZipFile zip = new ZipFile(nbmFile);
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (NbmUtils.isBundledJar(entry.getName())) {
+                    InputStream is = zip.getInputStream(entry);
+                    try {
+                        result.add(readBundledJar(entry.getName(), is));
+                    } finally {
+                        is.close();
+                    }
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return result;
+    }
+
+    private static BundledJar readBundledJar(String entryName, InputStream is) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+        CountingDigestInputStream counting = new CountingDigestInputStream(is, digest);
+        BundledJar jar = new BundledJar();
+        jar.name = entryName.substring(entryName.lastIndexOf('/') + 1);
+
+        // Read the nested jar once, hashing it and looking for pom.properties
+        JarInputStream jarStream = new JarInputStream(counting);
+        JarEntry jarEntry;
+        while ((jarEntry = jarStream.getNextJarEntry()) != null) {
+            String name = jarEntry.getName();
+            if (jar.coordinates == null && name.startsWith("META-INF/maven/") && name.endsWith("/pom.properties")) {
+                Properties properties = new Properties();
+                properties.load(jarStream);
+                if (properties.getProperty("groupId") != null && properties.getProperty("artifactId") != null) {
+                    jar.coordinates = properties.getProperty("groupId") + ":" + properties.getProperty("artifactId");
+                    jar.version = properties.getProperty("version");
+                }
+            }
+        }
+        // Consume the remaining bytes so the hash covers the whole file
+        byte[] buffer = new byte[8192];
+        while (counting.read(buffer) > 0) {
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(String.format("%02x", b));
+        }
+        jar.hash = builder.toString();
+        jar.size = counting.count;
+        return jar;
+    }
+
+    /**
+     * Library bundled in a NBM.
+     */
+    protected static class BundledJar {
+
+        protected String name;
+        protected long size;
+        protected String hash;
+        protected String coordinates;
+        protected String version;
+    }
+
+    private static class CountingDigestInputStream extends DigestInputStream {
+
+        private long count;
+
+        CountingDigestInputStream(InputStream stream, MessageDigest digest) {
+            super(stream, digest);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes should be hashed too
+            byte[] buffer = new byte[(int) Math.min(8192, Math.max(0, n))];
+            int read = buffer.length > 0 ? read(buffer, 0, buffer.length) : 0;
+            return Math.max(0, read);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * AppCDS (Application Class Data Sharing) archive of the Gephi application and
+ * the plugin clusters.
+ * <p>
+ * The first run records the loaded classes in an archive when the JVM exits,
+ * later runs map the archive to skip class parsing and verification. The
+ * archive name contains a hash of all the jars, so it's recorded again when a
+ * jar changes. Recording requires a JDK 13 or later. The options are preceded
+ * by <em>-XX:+IgnoreUnrecognizedVMOptions</em> as older JVMs refuse to start
+ * otherwise, they run without the archive instead.
+ */
+public class ClassDataSharing {
+
+    private static final String ARCHIVE_PREFIX = "gephi-";
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+
+    private final File archiveFolder;
+    private final Log log;
+
+    public ClassDataSharing(File archiveFolder, Log log) {
+        this.archiveFolder = archiveFolder;
+        this.log = log;
+    }
+
+    /**
+     * Returns the launcher arguments using the archive matching the given
+     * folders, or recording it if it doesn't exist. Archives of previous jars
+     * are deleted.
+     *
+     * @param folders application and cluster folders
+     * @return launcher arguments
+     * @throws IOException if the jars can't be listed
+     */
+    protected List<String> getArguments(List<File> folders) throws IOException {
+        String key = getKey(folders);
+        final String archiveName = ARCHIVE_PREFIX + key + ARCHIVE_SUFFIX;
+        File archive = new File(archiveFolder, archiveName);
+
+        if (archiveFolder.mkdirs()) {
+            log.debug("Folder '" + archiveFolder.getAbsolutePath() + "' created.");
+        }
+        File[] staleArchives = archiveFolder.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(ARCHIVE_PREFIX) && name.endsWith(ARCHIVE_SUFFIX) && !name.equals(archiveName);
+            }
+        });
+        if (staleArchives != null) {
+            for (File stale : staleArchives) {
+                if (stale.delete()) {
+                    log.debug("Deleted outdated class data sharing archive '" + stale.getName() + "'");
+                }
+            }
+        }
+
+        List<String> args = new ArrayList<String>();
+        args.add("-J-XX:+IgnoreUnrecognizedVMOptions");
+        if (archive.exists()) {
+            log.info("Using class data sharing archive '" + archive.getAbsolutePath() + "'");
+            args.add("-J-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+        } else {
+            log.info("Recording class data sharing archive '" + archive.getAbsolutePath() + "', it will be used from the next run");
+            args.add("-J-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath());
+        }
+        return args;
+    }
+
+    /**
+     * Returns the hash of the path, size and modification time of all jars in
+     * the folders.
+     *
+     * @param folders folders
+     * @return key
+     * @throws IOException if the folders can't be listed
+     */
+    protected static String getKey(List<File> folders) throws IOException {
+        final List<String> jars = new ArrayList<String>();
+        for (File folder : folders) {
+            if (!folder.isDirectory()) {
+                continue;
+            }
+            Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (file.toString().endsWith(".jar")) {
+                        jars.add(file.toAbsolutePath() + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        Collections.sort(jars);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String jar : jars) {
+                digest.update(jar.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder builder = new StringBuilder();
+            byte[] hash = digest.digest();
+            for (int i = 0; i < 8; i++) {
+                builder.append(String.format("%02x", hash[i]));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Minimal class file reader, used to inspect compiled classes without loading
+ * them.
+ */
+public class ClassFileUtils {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Returns the bytecode size of the static initializer of the class.
+     *
+     * @param classFile class file content
+     * @return size in bytes, 0 if the class has no static initializer
+     * @throws IOException if the class file is invalid
+     */
+    protected static int getStaticInitializerSize(InputStream classFile) throws IOException {
+        DataInputStream in = new DataInputStream(classFile);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        skip(in, 4);
+
+        // Constant pool, only UTF8 entries are kept
+        int constantCount = in.readUnsignedShort();
+        String[] utf8 = new String[constantCount];
+        for (int i = 1; i < constantCount; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    skip(in, 2);
+                    break;
+                case 15:
+                    skip(in, 3);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    skip(in, 4);
+                    break;
+                case 5:
+                case 6:
+                    // Long and double take two entries
+                    skip(in, 8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        // Access flags, this and super classes, interfaces
+        skip(in, 6);
+        skip(in, in.readUnsignedShort() * 2);
+
+        // Fields
+        int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            skip(in, 6);
+            skipAttributes(in);
+        }
+
+        // Methods
+        int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            skip(in, 2);
+            String name = utf8[in.readUnsignedShort()];
+            skip(in, 2);
+            if (!"<clinit>".equals(name)) {
+                skipAttributes(in);
+                continue;
+            }
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                String attributeName = utf8[in.readUnsignedShort()];
+                int length = in.readInt();
+                if ("Code".equals(attributeName)) {
+                    // Max stack and max locals precede the code length
+                    skip(in, 4);
+                    return in.readInt();
+                }
+                skip(in, length);
+            }
+            return 0;
+        }
+        return 0;
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            skip(in, 2);
+            skip(in, in.readInt());
+        }
+    }
+
+    private static void skip(DataInputStream in, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                in.readByte();
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
@@ -15,9 +15,14 @@
  */
 package org.gephi.maven;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -25,6 +30,8 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.gephi.maven.json.GenerateSpec;
+import org.gephi.maven.json.PluginSpec;
 
 /**
  * Generate new plugin.
@@ -32,12 +39,21 @@ import org.apache.maven.project.MavenProject;
 @Mojo(name = "generate", aggregator = true)
 public class Generate extends AbstractMojo {
 
+    private static final String BENCHMARK_SUFFIX = "Benchmark";
+
     /**
      * The Maven project.
      */
     @Parameter(required = true, readonly = true, property = "project")
     private MavenProject project;
 
+    /**
+     * JSON file describing the plugins to generate, which are created without
+     * asking questions.
+     */
+    @Parameter(property = "gephi.generate.spec")
+    private File spec;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         File baseDir = project.getBasedir();
@@ -61,9 +77,14 @@ public class Generate extends AbstractMojo {
 
         getLog().info("Gephi Maven Plugin version: " + GenerateUtils.getPluginVersion(project));
 
+        if (spec != null) {
+            generateFromSpec(baseDir, gephiVersion, pomFile);
+            return;
+        }
+
         String org, artifact, branding, folder, category, version,
                 shortDescription, longDescription, author, license, readme,
-                authorEmail, authorUrl;
+                authorEmail, authorUrl, benchmark;
 
         Scanner input = new Scanner(System.in);
 
@@ -135,6 +156,11 @@ public class Generate extends AbstractMojo {
             System.out.print("  Would you like to add a README.md file (yes|no): ");
         } while ((readme = GenerateUtils.validateYesNoChoice(input.nextLine())) == null);
 
+        //Benchmark
+        do {
+            System.out.print("  Would you like to add a JMH benchmark module (yes|no): ");
+        } while ((benchmark = GenerateUtils.validateYesNoChoice(input.nextLine())) == null);
+
         //Create folder
         File pluginFolder = new File(baseDir, "modules" + File.separator + folder);
         if (pluginFolder.exists()) {
@@ -146,54 +172,188 @@ public class Generate extends AbstractMojo {
                 getLog().warn("Process aborted, nothing has been done");
                 return;
             }
-        } else {
-            GenerateUtils.createFolder(new File(baseDir, "modules" + File.separator + folder), getLog());
         }
 
         //Close input
         input.close();
 
+        PluginSpec plugin = new PluginSpec();
+        plugin.organization = org;
+        plugin.artifact = artifact;
+        plugin.version = version;
+        plugin.folder = folder;
+        plugin.branding = branding;
+        plugin.category = category;
+        plugin.author = author;
+        plugin.author_email = authorEmail;
+        plugin.author_url = authorUrl;
+        plugin.license = license;
+        plugin.short_description = shortDescription;
+        plugin.long_description = longDescription;
+        plugin.readme = readme.matches("(?i)y|yes");
+        plugin.benchmark = benchmark.matches("(?i)y|yes");
+
+        //Get source code
+        String sourceCodeUrl = MetadataUtils.getSourceCodeUrlFromGit(project, getLog());
+        getLog().debug("Obtained source code url from Git: " + sourceCodeUrl);
+
+        createPlugin(baseDir, gephiVersion, sourceCodeUrl, plugin);
+
+        //Add module to pom
+        GenerateUtils.addModulesToPom(pomFile, getModuleFolders(plugin), getLog());
+        getLog().debug("Inserted '" + folder + "' into the list of modules in 'pom.xml'");
+
+        //Info
+        getLog().info("The configuration is successful. All values can be changed afterwards by editing the following configurations files:\n"
+                + "  - pom.xml: Module path listed in <modules></modules>, need to be updated if module folder is renamed\n"
+                + "  - modules" + File.separator + folder + File.separator + "pom.xml: Organization, version, name, author, license\n"
+                + "  - modules" + File.separator + folder + File.separator + "src" + File.separator + "main" + File.separator + "nbm: Branding name, short description, long description, category");
+        if (plugin.benchmark) {
+            getLog().info("The benchmarks in 'modules" + File.separator + folder + BENCHMARK_SUFFIX + "' run with 'mvn verify -Pbenchmark', the results are written to 'target" + File.separator + "jmh-result.json'");
+        }
+        getLog().info("Finished.");
+    }
+
+    private void generateFromSpec(File baseDir, String gephiVersion, File pomFile) throws MojoExecutionException {
+        GenerateSpec generateSpec;
+        try {
+            FileReader reader = new FileReader(spec);
+            try {
+                generateSpec = new Gson().fromJson(reader, GenerateSpec.class);
+            } finally {
+                reader.close();
+            }
+        } catch (JsonParseException e) {
+            throw new MojoExecutionException("Error while reading the spec file '" + spec.getAbsolutePath() + "'", e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error while reading the spec file '" + spec.getAbsolutePath() + "'", e);
+        }
+        if (generateSpec == null || generateSpec.plugins == null || generateSpec.plugins.isEmpty()) {
+            throw new MojoExecutionException("The spec file '" + spec.getAbsolutePath() + "' doesn't list any plugin");
+        }
+
+        //Validate all entries before creating anything
+        List<String> errors = new ArrayList<String>();
+        List<String> folders = new ArrayList<String>();
+        for (int i = 0; i < generateSpec.plugins.size(); i++) {
+            PluginSpec plugin = generateSpec.plugins.get(i);
+            String prefix = "Plugin #" + (i + 1) + ": ";
+            if (plugin == null) {
+                errors.add(prefix + "empty entry");
+                continue;
+            }
+            check(errors, prefix, "organization", plugin.organization, GenerateUtils.validateOrganization(plugin.organization));
+            check(errors, prefix, "artifact", plugin.artifact, GenerateUtils.validateArtifact(plugin.artifact));
+            check(errors, prefix, "version", plugin.version, GenerateUtils.validateVersion(plugin.version));
+            check(errors, prefix, "folder", plugin.folder, GenerateUtils.validateFolderName(plugin.folder));
+            check(errors, prefix, "branding", plugin.branding, GenerateUtils.validateBrandingName(plugin.branding));
+            check(errors, prefix, "category", plugin.category, GenerateUtils.validateCategory(plugin.category));
+            check(errors, prefix, "author", plugin.author, GenerateUtils.validateAuthor(plugin.author));
+            check(errors, prefix, "license", plugin.license, GenerateUtils.validatePomEntry(plugin.license));
+            check(errors, prefix, "short_description", plugin.short_description, GenerateUtils.validateDescription(plugin.short_description));
+            check(errors, prefix, "long_description", plugin.long_description, GenerateUtils.validateDescription(plugin.long_description));
+            if (plugin.author_email != null && !plugin.author_email.isEmpty()) {
+                check(errors, prefix, "author_email", plugin.author_email, GenerateUtils.validateAuthorEmail(plugin.author_email));
+            }
+            if (plugin.author_url != null && !plugin.author_url.isEmpty()) {
+                check(errors, prefix, "author_url", plugin.author_url, GenerateUtils.validateAuthorUrl(plugin.author_url));
+            }
+            if (plugin.folder != null) {
+                if (folders.contains(plugin.folder)) {
+                    errors.add(prefix + "the folder '" + plugin.folder + "' is used by another entry");
+                } else if (new File(baseDir, "modules" + File.separator + plugin.folder).exists()) {
+                    errors.add(prefix + "the plugin folder 'modules" + File.separator + plugin.folder + "' already exists");
+                }
+                folders.add(plugin.folder);
+                if (plugin.benchmark != null && plugin.benchmark) {
+                    String benchmarkFolder = plugin.folder + BENCHMARK_SUFFIX;
+                    if (folders.contains(benchmarkFolder) || new File(baseDir, "modules" + File.separator + benchmarkFolder).exists()) {
+                        errors.add(prefix + "the benchmark folder 'modules" + File.separator + benchmarkFolder + "' already exists");
+                    }
+                    folders.add(benchmarkFolder);
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            for (String error : errors) {
+                getLog().error(error);
+            }
+            throw new MojoExecutionException(errors.size() + " invalid value(s) in the spec file '" + spec.getAbsolutePath() + "', nothing has been done");
+        }
+
         //Get source code
         String sourceCodeUrl = MetadataUtils.getSourceCodeUrlFromGit(project, getLog());
         getLog().debug("Obtained source code url from Git: " + sourceCodeUrl);
 
+        List<String> modules = new ArrayList<String>();
+        for (PluginSpec plugin : generateSpec.plugins) {
+            createPlugin(baseDir, gephiVersion, sourceCodeUrl, plugin);
+            modules.addAll(getModuleFolders(plugin));
+            getLog().info("Created plugin '" + plugin.branding + "' in 'modules" + File.separator + plugin.folder + "'");
+        }
+
+        //Add all modules to pom at once
+        GenerateUtils.addModulesToPom(pomFile, modules, getLog());
+        getLog().debug("Inserted " + modules.size() + " modules into the list of modules in 'pom.xml'");
+        getLog().info("Finished, " + generateSpec.plugins.size() + " plugins generated.");
+    }
+
+    private static void check(List<String> errors, String prefix, String field, String value, String validated) {
+        if (validated == null) {
+            errors.add(prefix + "invalid " + field + " '" + (value != null ? value : "") + "'");
+        }
+    }
+
+    private void createPlugin(File baseDir, String gephiVersion, String sourceCodeUrl, PluginSpec plugin) throws MojoExecutionException {
+        File pluginFolder = GenerateUtils.createFolder(new File(baseDir, "modules" + File.separator + plugin.folder), getLog());
+
         //Create pom.xml
-        GenerateUtils.createTopPomFile(new File(pluginFolder, "pom.xml"), gephiVersion, org, artifact, version, branding, author, authorEmail, authorUrl, license, null, sourceCodeUrl, null);
+        GenerateUtils.createTopPomFile(new File(pluginFolder, "pom.xml"), gephiVersion, plugin.organization, plugin.artifact, plugin.version, plugin.branding,
+                plugin.author, plugin.author_email, plugin.author_url, plugin.license, null, sourceCodeUrl, null, plugin.category);
         getLog().debug("Created 'pom.xml' file at '" + pluginFolder.getAbsolutePath() + "'");
 
         //Readme
-        if (readme.matches("(?i)y|yes")) {
-            createReadme(pluginFolder, branding);
+        if (plugin.readme == null || plugin.readme) {
+            createReadme(pluginFolder, plugin.branding);
             getLog().debug("Created 'README.md' file at '" + pluginFolder.getAbsolutePath() + "'");
         }
 
         //Create nbm, java and resources in src/main folder
         File srcMain = GenerateUtils.createFolder(new File(pluginFolder, "src" + File.separator + "main"), getLog());
         File nbmFolder = GenerateUtils.createFolder(new File(srcMain, "nbm"), getLog());
-        GenerateUtils.createFolder(new File(srcMain, "java"), getLog());
+        File javaFolder = GenerateUtils.createFolder(new File(srcMain, "java"), getLog());
         GenerateUtils.createFolder(new File(srcMain, "resources"), getLog());
 
+        //Create category sources
+        String packageName = GenerateUtils.getPackageName(plugin.organization + "." + plugin.folder);
+        GenerateUtils.createCategorySources(javaFolder, plugin.category, packageName, plugin.folder, plugin.artifact, plugin.branding, getLog());
+
         //Create src/test/java
         File srcTest = GenerateUtils.createFolder(new File(pluginFolder, "src" + File.separator + "test"), getLog());
         GenerateUtils.createFolder(new File(srcTest, "java"), getLog());
 
         //Create manifest
-        GenerateUtils.createManifest(new File(nbmFolder, "manifest.mf"), branding, shortDescription, longDescription, category);
+        GenerateUtils.createManifest(new File(nbmFolder, "manifest.mf"), plugin.branding, plugin.short_description, plugin.long_description, plugin.category);
         getLog().debug("Created 'manifest.mf' file at '" + nbmFolder.getAbsolutePath() + "'");
 
         //Create img folder
         GenerateUtils.createFolder(new File(pluginFolder, "src" + File.separator + "img"), getLog());
 
-        //Add module to pom
-        GenerateUtils.addModuleToPom(pomFile, folder, getLog());
-        getLog().debug("Inserted '" + folder + "' into the list of modules in 'pom.xml'");
+        //Create benchmark module
+        if (plugin.benchmark != null && plugin.benchmark) {
+            File benchmarkFolder = new File(baseDir, "modules" + File.separator + plugin.folder + BENCHMARK_SUFFIX);
+            GenerateUtils.createBenchmarkModule(benchmarkFolder, gephiVersion, plugin.organization, plugin.artifact, plugin.version, plugin.branding, getLog());
+            getLog().debug("Created benchmark module at '" + benchmarkFolder.getAbsolutePath() + "'");
+        }
+    }
 
-        //Info
-        getLog().info("The configuration is successful. All values can be changed afterwards by editing the following configurations files:\n"
-                + "  - pom.xml: Module path listed in <modules></modules>, need to be updated if module folder is renamed\n"
-                + "  - modules" + File.separator + folder + File.separator + "pom.xml: Organization, version, name, author, license\n"
-                + "  - modules" + File.separator + folder + File.separator + "src" + File.separator + "main" + File.separator + "nbm: Branding name, short description, long description, category");
-        getLog().info("Finished.");
+    private static List<String> getModuleFolders(PluginSpec plugin) {
+        List<String> folders = new ArrayList<String>();
+        folders.add(plugin.folder);
+        if (plugin.benchmark != null && plugin.benchmark) {
+            folders.add(plugin.folder + BENCHMARK_SUFFIX);
+        }
+        return folders;
     }
 
     private void createReadme(File folder, String brandingName) throws MojoExecutionException {
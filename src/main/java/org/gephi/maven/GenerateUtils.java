@@ -20,8 +20,14 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import org.apache.maven.artifact.Artifact;
@@ -41,12 +47,50 @@ public class GenerateUtils {
 
     protected static final Pattern VALID_EMAIL_ADDRESS_REGEX = Pattern.compile("^[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}$", Pattern.CASE_INSENSITIVE);
 
-    protected static VelocityEngine initVelocity() {
-        VelocityEngine ve = new VelocityEngine();
-        ve.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-        ve.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-        ve.init();
-        return ve;
+    private static VelocityEngine velocityEngine;
+
+    /**
+     * Source templates per category, in <em>templates/category</em>.
+     */
+    private static final Map<String, List<String>> CATEGORY_TEMPLATES = new HashMap<String, List<String>>();
+    /**
+     * Gephi and NetBeans dependencies of the category sources, as
+     * <em>groupId:artifactId</em>.
+     */
+    private static final Map<String, List<String>> CATEGORY_DEPENDENCIES = new HashMap<String, List<String>>();
+
+    static {
+        CATEGORY_TEMPLATES.put("Layout", Arrays.asList("Layout", "LayoutBuilder"));
+        CATEGORY_TEMPLATES.put("Metric", Arrays.asList("Metric", "MetricBuilder", "MetricUI"));
+        CATEGORY_TEMPLATES.put("Filter", Arrays.asList("Filter", "FilterBuilder"));
+        CATEGORY_TEMPLATES.put("Generator", Arrays.asList("Generator"));
+        CATEGORY_TEMPLATES.put("Import", Arrays.asList("Importer", "ImporterBuilder"));
+        CATEGORY_TEMPLATES.put("Export", Arrays.asList("Exporter", "ExporterBuilder"));
+
+        CATEGORY_DEPENDENCIES.put("Layout", Arrays.asList("org.gephi:graph-api", "org.gephi:layout-api", "org.netbeans.api:org-openide-util-lookup"));
+        CATEGORY_DEPENDENCIES.put("Metric", Arrays.asList("org.gephi:graph-api", "org.gephi:statistics-api", "org.gephi:utils-longtask", "org.netbeans.api:org-openide-util-lookup"));
+        CATEGORY_DEPENDENCIES.put("Filter", Arrays.asList("org.gephi:graph-api", "org.gephi:filters-api", "org.gephi:project-api", "org.netbeans.api:org-openide-util-lookup"));
+        CATEGORY_DEPENDENCIES.put("Generator", Arrays.asList("org.gephi:io-generator-api", "org.gephi:io-importer-api", "org.gephi:utils-longtask", "org.netbeans.api:org-openide-util-lookup"));
+        CATEGORY_DEPENDENCIES.put("Import", Arrays.asList("org.gephi:io-importer-api", "org.gephi:utils-longtask", "org.netbeans.api:org-openide-filesystems", "org.netbeans.api:org-openide-util-lookup"));
+        CATEGORY_DEPENDENCIES.put("Export", Arrays.asList("org.gephi:graph-api", "org.gephi:io-exporter-api", "org.gephi:project-api", "org.gephi:utils-longtask", "org.netbeans.api:org-openide-util-lookup"));
+    }
+
+    /**
+     * Returns the shared Velocity engine, created at the first call. The
+     * templates it compiles are cached.
+     *
+     * @return velocity engine
+     */
+    protected static synchronized VelocityEngine initVelocity() {
+        if (velocityEngine == null) {
+            VelocityEngine ve = new VelocityEngine();
+            ve.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
+            ve.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
+            ve.setProperty("classpath.resource.loader.cache", "true");
+            ve.init();
+            velocityEngine = ve;
+        }
+        return velocityEngine;
     }
 
     protected static String validateDescription(String val) {
@@ -192,24 +236,61 @@ public class GenerateUtils {
     }
 
     protected static void addModuleToPom(File pomFile, String moduleName, Log log) throws MojoExecutionException {
+        addModulesToPom(pomFile, Collections.singletonList(moduleName), log);
+    }
+
+    /**
+     * Insert the modules in the list of modules of the pom, in a single
+     * rewrite. Modules already listed are skipped.
+     *
+     * @param pomFile pom file
+     * @param moduleNames module folder names
+     * @param log log
+     * @throws MojoExecutionException if the pom can't be read or written
+     */
+    protected static void addModulesToPom(File pomFile, List<String> moduleNames, Log log) throws MojoExecutionException {
         try {
-            StringBuilder fileContent = new StringBuilder();
+            List<String> lines = new ArrayList<String>();
             BufferedReader reader = new BufferedReader(new FileReader(pomFile));
-            String toAdd = "        <module>modules/" + moduleName + "</module>";
             String line;
-            boolean skip = false;
             while ((line = reader.readLine()) != null) {
-                if (line.contains(toAdd)) {
-                    log.debug("Found the module path, skipping to avoid duplicate");
-                    skip = true;
+                lines.add(line);
+            }
+            reader.close();
+
+            List<String> toAdd = new ArrayList<String>();
+            for (String moduleName : moduleNames) {
+                String entry = "        <module>modules/" + moduleName + "</module>";
+                boolean found = toAdd.contains(entry);
+                for (int i = 0; i < lines.size() && !found; i++) {
+                    found = lines.get(i).contains(entry);
                 }
-                if (!skip && line.contains("</modules>")) {
-                    fileContent.append(toAdd).append("\n");
-                    log.debug("Found '</modules>' string, inserting module path");
+                if (found) {
+                    log.debug("Found the module path '" + moduleName + "', skipping to avoid duplicate");
+                } else {
+                    toAdd.add(entry);
                 }
-                fileContent.append(line).append("\n");
             }
-            reader.close();
+            if (toAdd.isEmpty()) {
+                return;
+            }
+
+            StringBuilder fileContent = new StringBuilder();
+            boolean inserted = false;
+            for (String l : lines) {
+                if (!inserted && l.contains("</modules>")) {
+                    for (String entry : toAdd) {
+                        fileContent.append(entry).append("\n");
+                    }
+                    inserted = true;
+                    log.debug("Found '</modules>' string, inserting " + toAdd.size() + " module path(s)");
+                }
+                fileContent.append(l).append("\n");
+            }
+            if (!inserted) {
+                log.warn("The '</modules>' element can't be found in '" + pomFile.getAbsolutePath() + "', the modules should be added manually");
+                return;
+            }
 
             FileWriter writer = new FileWriter(pomFile);
             writer.append(fileContent.toString());
@@ -248,6 +329,10 @@ public class GenerateUtils {
     }
 
     protected static void createTopPomFile(File file, String gephiVersion, String orgId, String artifactId, String version, String brandingName, String authorName, String authorEmail, String authorUrl, String licenseName, String licenseFile, String sourceCodeUrl, String homepageUrl) throws MojoExecutionException {
+        createTopPomFile(file, gephiVersion, orgId, artifactId, version, brandingName, authorName, authorEmail, authorUrl, licenseName, licenseFile, sourceCodeUrl, homepageUrl, null);
+    }
+
+    protected static void createTopPomFile(File file, String gephiVersion, String orgId, String artifactId, String version, String brandingName, String authorName, String authorEmail, String authorUrl, String licenseName, String licenseFile, String sourceCodeUrl, String homepageUrl, String category) throws MojoExecutionException {
         VelocityEngine ve = GenerateUtils.initVelocity();
         Template t = ve.getTemplate("org/gephi/maven/templates/top-plugin-pom.xml", "UTF-8");
 
@@ -264,6 +349,7 @@ public class GenerateUtils {
         context.put("author_url", authorUrl);
         context.put("sourcecode_url", sourceCodeUrl);
         context.put("homepage_url", homepageUrl);
+        context.put("dependencies", getCategoryDependencies(category));
 
         try {
             FileWriter writer = new FileWriter(file);
@@ -274,6 +360,133 @@ public class GenerateUtils {
         }
     }
 
+    /**
+     * Create a JMH benchmark module for the plugin, depending on the plugin
+     * module and the graph API, with synthetic graph generators.
+     *
+     * @param folder benchmark module folder
+     * @param gephiVersion Gephi version
+     * @param orgId plugin organization
+     * @param artifactId plugin artifact id
+     * @param version plugin version
+     * @param brandingName plugin branding name
+     * @param log log
+     * @throws MojoExecutionException if a file can't be written
+     */
+    protected static void createBenchmarkModule(File folder, String gephiVersion, String orgId, String artifactId, String version, String brandingName, Log log) throws MojoExecutionException {
+        String packageName = getPackageName(orgId) + ".benchmark";
+        VelocityContext context = new VelocityContext();
+        context.put("gephi_version", gephiVersion);
+        context.put("org_id", orgId);
+        context.put("artifact_id", artifactId);
+        context.put("version", version);
+        context.put("branding_name", brandingName);
+        context.put("package_name", packageName);
+
+        createFolder(folder, log);
+        mergeTemplate("org/gephi/maven/templates/benchmark/pom.xml", context, new File(folder, "pom.xml"));
+        File packageFolder = createFolder(new File(folder, "src" + File.separator + "main" + File.separator + "java" + File.separator + packageName.replace('.', File.separatorChar)), log);
+        mergeTemplate("org/gephi/maven/templates/benchmark/GraphGenerator.java", context, new File(packageFolder, "GraphGenerator.java"));
+        mergeTemplate("org/gephi/maven/templates/benchmark/GraphBenchmark.java", context, new File(packageFolder, "GraphBenchmark.java"));
+    }
+
+    /**
+     * Returns true if the category has source templates.
+     *
+     * @param category category
+     * @return true if sources can be generated
+     */
+    protected static boolean hasCategoryTemplates(String category) {
+        return category != null && CATEGORY_TEMPLATES.containsKey(category);
+    }
+
+    /**
+     * Returns the dependencies of the category sources, as maps with
+     * <em>groupId</em> and <em>artifactId</em> entries for the templates.
+     *
+     * @param category category, or null
+     * @return dependencies, empty if the category has no templates
+     */
+    protected static List<Map<String, String>> getCategoryDependencies(String category) {
+        List<Map<String, String>> result = new ArrayList<Map<String, String>>();
+        if (category != null && CATEGORY_DEPENDENCIES.containsKey(category)) {
+            for (String dependency : CATEGORY_DEPENDENCIES.get(category)) {
+                Map<String, String> map = new HashMap<String, String>();
+                map.put("groupId", dependency.substring(0, dependency.indexOf(':')));
+                map.put("artifactId", dependency.substring(dependency.indexOf(':') + 1));
+                result.add(map);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create the service registration and implementation stubs of the
+     * category, if it has templates.
+     *
+     * @param javaFolder <em>src/main/java</em> folder
+     * @param category category
+     * @param packageName Java package of the sources
+     * @param classPrefix prefix of the class names
+     * @param artifactId plugin artifact id
+     * @param brandingName plugin branding name
+     * @param log log
+     * @throws MojoExecutionException if a file can't be written
+     */
+    protected static void createCategorySources(File javaFolder, String category, String packageName, String classPrefix, String artifactId, String brandingName, Log log) throws MojoExecutionException {
+        if (!hasCategoryTemplates(category)) {
+            return;
+        }
+        VelocityContext context = new VelocityContext();
+        context.put("package_name", packageName);
+        context.put("class_prefix", classPrefix);
+        context.put("branding_name", brandingName);
+        context.put("column_id", artifactId);
+
+        File packageFolder = createFolder(new File(javaFolder, packageName.replace('.', File.separatorChar)), log);
+        String templateFolder = "org/gephi/maven/templates/category/" + category.toLowerCase(Locale.ENGLISH) + "/";
+        for (String name : CATEGORY_TEMPLATES.get(category)) {
+            File file = new File(packageFolder, classPrefix + name + ".java");
+            mergeTemplate(templateFolder + name + ".java", context, file);
+            log.debug("Created '" + file.getName() + "' file at '" + packageFolder.getAbsolutePath() + "'");
+        }
+    }
+
+    /**
+     * Returns a valid Java package name derived from the organization.
+     *
+     * @param orgId organization, e.g. <em>my.company</em>
+     * @return package name
+     */
+    protected static String getPackageName(String orgId) {
+        StringBuilder sb = new StringBuilder();
+        for (String segment : orgId.toLowerCase(Locale.ENGLISH).split("\\.")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append('.');
+            }
+            segment = segment.replace('-', '_');
+            if (!Character.isJavaIdentifierStart(segment.charAt(0))) {
+                sb.append('_');
+            }
+            sb.append(segment);
+        }
+        return sb.toString();
+    }
+
+    private static void mergeTemplate(String template, VelocityContext context, File file) throws MojoExecutionException {
+        Template t = initVelocity().getTemplate(template, "UTF-8");
+        try {
+            FileWriter writer = new FileWriter(file);
+            t.merge(context, writer);
+            writer.close();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error writing '" + file.getAbsolutePath() + "'", e);
+        }
+    }
+
     protected static File createFolder(File folder, Log log) {
         if (folder.mkdirs()) {
             log.debug("Created folder at '" + folder.getAbsolutePath() + "'");
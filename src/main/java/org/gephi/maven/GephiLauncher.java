@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.Os;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Builds the command lines launching the Gephi application created by the
+ * build, shared by the goals running Gephi.
+ */
+public class GephiLauncher {
+
+    private final File gephiDirectory;
+    private final String brandingToken;
+    private final boolean windows;
+
+    /**
+     * Creates the launcher.
+     *
+     * @param gephiDirectory directory of the Gephi application
+     * @param brandingToken branding token
+     * @throws MojoExecutionException if the application doesn't exist
+     */
+    public GephiLauncher(File gephiDirectory, String brandingToken) throws MojoExecutionException {
+        if (!gephiDirectory.exists()) {
+            throw new MojoExecutionException("The directory that shall contain the gephi application, doesn't exist ("
+                    + gephiDirectory.getAbsolutePath() + ")\n Please invoke 'mvn package' on the project first");
+        }
+        this.gephiDirectory = gephiDirectory;
+        this.brandingToken = brandingToken;
+        this.windows = Os.isFamily("windows");
+    }
+
+    protected boolean isWindows() {
+        return windows;
+    }
+
+    protected File getGephiDirectory() {
+        return gephiDirectory;
+    }
+
+    /**
+     * Returns the application launcher.
+     *
+     * @return launcher executable
+     */
+    protected File getExecutable() {
+        if (windows) {
+            File exec = new File(gephiDirectory, "bin\\" + brandingToken + ".exe");
+            // if jdk is 32 or 64-bit
+            String jdkHome = System.getenv("JAVA_HOME");
+            if (jdkHome != null) {
+                if (new File(jdkHome, "jre\\lib\\amd64\\jvm.cfg").exists()) {
+                    File exec64 = new File(gephiDirectory, "bin\\" + brandingToken + "64.exe");
+                    if (exec64.isFile()) {
+                        exec = exec64;
+                    }
+                }
+            }
+            return exec;
+        }
+        return new File(gephiDirectory, "bin/" + brandingToken);
+    }
+
+    /**
+     * Returns the configuration file of the application.
+     *
+     * @return <em>etc/&lt;branding&gt;.conf</em> file
+     */
+    protected File getConfFile() {
+        return new File(gephiDirectory, "etc" + File.separator + brandingToken + ".conf");
+    }
+
+    /**
+     * Returns the launcher arguments selecting the userdir and JDK, which are
+     * enough to send commands to a running instance.
+     *
+     * @param userdir Gephi user directory
+     * @return arguments
+     */
+    protected List<String> getInstanceArguments(File userdir) {
+        List<String> args = new ArrayList<String>();
+        if (windows) {
+            args.add("--console");
+            args.add("suppress");
+        }
+        args.add("--userdir");
+        args.add(userdir.getAbsolutePath());
+        // use JAVA_HOME if set
+        if (System.getenv("JAVA_HOME") != null) {
+            args.add("--jdkhome");
+            args.add(System.getenv("JAVA_HOME"));
+        }
+        return args;
+    }
+
+    /**
+     * Creates the command line launching the application with the userdir,
+     * console logging, assertions and the branding.
+     *
+     * @param userdir Gephi user directory
+     * @param jvmArguments additional launcher arguments, e.g. <em>-J</em>
+     * options
+     * @return command line
+     */
+    protected Commandline createCommandline(File userdir, List<String> jvmArguments) {
+        Commandline cmdLine = new Commandline();
+        cmdLine.setExecutable(getExecutable().getAbsolutePath());
+        cmdLine.addArguments(getInstanceArguments(userdir).toArray(new String[0]));
+        cmdLine.addArguments(new String[]{"-J-Dnetbeans.logger.console=true", "-J-ea", "--branding", brandingToken});
+        if (jvmArguments != null) {
+            cmdLine.addArguments(jvmArguments.toArray(new String[0]));
+        }
+        return cmdLine;
+    }
+
+    /**
+     * Configure the application to run with the plugin clusters.
+     *
+     * @param clusters cluster paths
+     * @throws IOException if the configuration can't be written
+     */
+    protected void setExtraClusters(List<String> clusters) throws IOException {
+        if (clusters == null || clusters.isEmpty()) {
+            return;
+        }
+        StringBuilder sBuilder = new StringBuilder();
+        for (String cluster : clusters) {
+            sBuilder.append(cluster);
+            sBuilder.append(File.pathSeparator);
+        }
+        sBuilder.deleteCharAt(sBuilder.length() - 1);
+        setConfValue("extra_clusters", sBuilder.toString());
+    }
+
+    /**
+     * Returns the major version of the JVM running the application, read from
+     * the <em>release</em> file of <em>JAVA_HOME</em> or of the configured
+     * <em>jdkhome</em>.
+     *
+     * @return version, e.g. 8 or 17, or -1 if unknown
+     */
+    protected int getJavaVersion() {
+        String jdkHome = System.getenv("JAVA_HOME");
+        if (jdkHome == null) {
+            try {
+                jdkHome = getConfValue("jdkhome");
+            } catch (IOException ex) {
+                return -1;
+            }
+        }
+        if (jdkHome == null || jdkHome.isEmpty()) {
+            return -1;
+        }
+        return getJavaVersion(new File(jdkHome));
+    }
+
+    /**
+     * Returns the major version of the JDK, read from its <em>release</em>
+     * file.
+     *
+     * @param jdkHome JDK folder
+     * @return version, e.g. 8 or 17, or -1 if unknown
+     */
+    protected static int getJavaVersion(File jdkHome) {
+        File release = new File(jdkHome, "release");
+        if (!release.isFile()) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(release.toPath(), StandardCharsets.UTF_8)) {
+                if (line.startsWith("JAVA_VERSION=")) {
+                    String version = line.substring("JAVA_VERSION=".length()).replace("\"", "").trim();
+                    if (version.startsWith("1.")) {
+                        version = version.substring(2);
+                    }
+                    Matcher matcher = Pattern.compile("^(\\d+)").matcher(version);
+                    return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+                }
+            }
+        } catch (IOException ex) {
+            // Unknown version
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value of a key of the configuration file, without quotes.
+     *
+     * @param key key
+     * @return value, or null if not set
+     * @throws IOException if the configuration can't be read
+     */
+    protected String getConfValue(String key) throws IOException {
+        for (String line : Files.readAllLines(getConfFile().toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith(key + "=")) {
+                String value = line.substring(key.length() + 1).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Set a key of the configuration file, replacing its current or
+     * commented-out line, or appending it. Setting the same value again leaves
+     * the file unchanged.
+     *
+     * @param key key
+     * @param value value, quoted if needed
+     * @throws IOException if the configuration can't be read or written
+     */
+    protected void setConfValue(String key, String value) throws IOException {
+        File file = getConfFile();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        String newLine = key + "=" + value;
+        int index = -1;
+        for (int i = 0; i < lines.size() && index < 0; i++) {
+            if (lines.get(i).startsWith(key + "=")) {
+                index = i;
+            }
+        }
+        for (int i = 0; i < lines.size() && index < 0; i++) {
+            if (lines.get(i).startsWith("#" + key + "=")) {
+                index = i;
+            }
+        }
+        if (index >= 0 && lines.get(index).equals(newLine)) {
+            return;
+        }
+        if (index >= 0) {
+            lines.set(index, newLine);
+        } else {
+            lines.add(newLine);
+        }
+        File newFile = new File(file.getParent(), file.getName() + ".new");
+        Files.write(newFile.toPath(), lines, StandardCharsets.UTF_8);
+        Files.move(newFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
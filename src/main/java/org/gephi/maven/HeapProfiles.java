@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Named heap and garbage collector settings of the application.
+ * <ul>
+ * <li><em>small</em>: up to 1 GB of heap with G1, for quick tests</li>
+ * <li><em>large-graph</em>: most of the machine memory with G1, for graphs of
+ * millions of edges</li>
+ * <li><em>low-latency</em>: half of the machine memory with ZGC, for
+ * interactive tests without long pauses (JDK 15 or later)</li>
+ * </ul>
+ * All profiles log the garbage collections to a file. The options are passed
+ * to a single launch and aren't written in the application's configuration.
+ */
+public class HeapProfiles {
+
+    protected static final List<String> PROFILES = Arrays.asList("small", "large-graph", "low-latency");
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * Returns the launcher options of the profile.
+     *
+     * @param profile profile name
+     * @param physicalMemory machine memory in bytes, or -1 if unknown
+     * @param maxHeap maximum heap overriding the profile's, e.g. <em>8g</em>,
+     * or null
+     * @param gcLog garbage collection log file, or null
+     * @param javaVersion major version of the application's JVM, or -1 if
+     * unknown
+     * @return <em>-J</em> options
+     * @throws MojoExecutionException if the profile doesn't exist
+     */
+    protected static List<String> getOptions(String profile, long physicalMemory, String maxHeap, File gcLog, int javaVersion) throws MojoExecutionException {
+        if (!PROFILES.contains(profile)) {
+            throw new MojoExecutionException("Unknown launch profile '" + profile + "', should be one of " + PROFILES);
+        }
+        long memory = physicalMemory > 0 ? physicalMemory : 4096 * MB;
+        long heap;
+        List<String> options = new ArrayList<String>();
+        if (profile.equals("small")) {
+            heap = Math.min(1024 * MB, memory / 4);
+            options.add("-J-XX:+UseG1GC");
+        } else if (profile.equals("large-graph")) {
+            // Keep some memory for the system, the launcher and the metaspace
+            heap = Math.max(memory / 2, memory - 2048 * MB);
+            heap = Math.min(heap, memory * 3 / 4);
+            options.add("-J-XX:+UseG1GC");
+            options.add("-J-XX:+ParallelRefProcEnabled");
+        } else {
+            heap = memory / 2;
+            options.add("-J-XX:+UseZGC");
+        }
+        String xmx = maxHeap != null && !maxHeap.isEmpty() ? maxHeap : (heap / MB) + "m";
+        options.add(0, "-J-Xmx" + xmx);
+        options.add(0, "-J-Xms" + (profile.equals("large-graph") ? xmx : "256m"));
+        if (gcLog != null) {
+            if (javaVersion >= 9) {
+                options.add("-J-Xlog:gc*:file=" + gcLog.getAbsolutePath() + ":time,uptime:filecount=5,filesize=10m");
+            } else {
+                // JDK 8 doesn't start with -Xlog, later JDKs still accept -Xloggc
+                options.add("-J-Xloggc:" + gcLog.getAbsolutePath());
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Returns the physical memory of the machine, read reflectively from the
+     * JDK-specific operating system bean.
+     *
+     * @return memory in bytes, or -1 if not available
+     */
+    protected static long getPhysicalMemory() {
+        try {
+            Class<?> beanClass = Class.forName("com.sun.management.OperatingSystemMXBean");
+            Object bean = ManagementFactory.getOperatingSystemMXBean();
+            if (beanClass.isInstance(bean)) {
+                Method method = beanClass.getMethod("getTotalPhysicalMemorySize");
+                return ((Number) method.invoke(bean)).longValue();
+            }
+        } catch (Exception ex) {
+            // Not a HotSpot-based JDK
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.gephi.maven.json.Image;
+import org.gephi.maven.json.ImageManifest;
+import org.gephi.maven.json.ImageVariant;
+import org.gephi.maven.json.PluginMetadata;
+
+/**
+ * Content-addressed storage for published images.
+ * <p>
+ * Files are named after a short hash of their content so they never change
+ * once published and can be cached forever. Identical images are stored once,
+ * whichever plugin or version they belong to.
+ */
+public class ImageStore {
+
+    /**
+     * Number of hexadecimal characters of the SHA-256 hash kept in file names.
+     */
+    private static final int HASH_LENGTH = 16;
+
+    private static final Pattern STORED_FILE = Pattern.compile("[0-9a-f]{" + HASH_LENGTH + "}\\.png");
+
+    private final File folder;
+    private final String urlPrefix;
+    private final Log log;
+    private final Set<String> published = new TreeSet<String>();
+
+    public ImageStore(File folder, String urlPrefix, Log log) {
+        this.folder = folder;
+        this.urlPrefix = urlPrefix;
+        this.log = log;
+    }
+
+    /**
+     * Move the given file into the store and return its url. If an identical
+     * file is already stored, the given file is deleted instead.
+     *
+     * @param file PNG file
+     * @return url of the stored file
+     * @throws IOException if an io error occurs
+     */
+    protected String store(File file) throws IOException {
+        String name = hash(file) + ".png";
+        File dest = new File(folder, name);
+        if (folder.mkdirs()) {
+            log.debug("Folder '" + folder.getAbsolutePath() + "' created.");
+        }
+        if (dest.exists()) {
+            Files.delete(file.toPath());
+            log.debug("Image file '" + file.getName() + "' is identical to the stored '" + name + "'");
+        } else {
+            Files.move(file.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Stored image file '" + file.getName() + "' as '" + name + "'");
+        }
+        return urlPrefix + name;
+    }
+
+    /**
+     * Record the stored files referenced by the published metadata, before
+     * it's updated, so the files no longer referenced are found orphaned even
+     * if they aren't in the local folder.
+     *
+     * @param plugins published plugins metadata
+     */
+    protected void addPublished(List<PluginMetadata> plugins) {
+        published.addAll(getReferenced(plugins));
+    }
+
+    /**
+     * Record the live files of the published manifest, so the ones no longer
+     * referenced are found orphaned. Its orphaned files aren't carried over,
+     * they have been listed once already.
+     *
+     * @param manifest published manifest
+     */
+    protected void addPublished(ImageManifest manifest) {
+        if (manifest.live != null) {
+            for (String url : manifest.live) {
+                addStored(published, url);
+            }
+        }
+    }
+
+    /**
+     * Write the manifest listing the stored files referenced by the plugins
+     * (live) and the other stored or published files (orphaned), which can be
+     * deleted. Orphaned files of the local folder are deleted.
+     *
+     * @param manifestFile manifest file
+     * @param plugins all plugins metadata, including the ones not updated by
+     * this build
+     * @return written manifest
+     * @throws MojoExecutionException if an error occurs
+     */
+    protected ImageManifest writeManifest(File manifestFile, List<PluginMetadata> plugins) throws MojoExecutionException {
+        Set<String> live = getReferenced(plugins);
+
+        Set<String> orphaned = new TreeSet<String>(published);
+        String[] storedFiles = folder.list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return STORED_FILE.matcher(name).matches();
+            }
+        });
+        if (storedFiles != null) {
+            for (String name : storedFiles) {
+                orphaned.add(urlPrefix + name);
+            }
+        }
+        orphaned.removeAll(live);
+        for (String url : orphaned) {
+            File file = new File(folder, url.substring(urlPrefix.length()));
+            if (file.delete()) {
+                log.debug("Deleted orphaned image file '" + file.getName() + "'");
+            }
+        }
+
+        ImageManifest manifest = new ImageManifest();
+        manifest.live = new ArrayList<String>(live);
+        manifest.orphaned = new ArrayList<String>(orphaned);
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            FileWriter writer = new FileWriter(manifestFile);
+            writer.append(gson.toJson(manifest));
+            writer.close();
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Error while writing '" + manifestFile.getAbsolutePath() + "'", ex);
+        }
+        log.info("Images manifest written with " + live.size() + " live and " + orphaned.size() + " orphaned files");
+        return manifest;
+    }
+
+    private Set<String> getReferenced(List<PluginMetadata> plugins) {
+        Set<String> referenced = new TreeSet<String>();
+        for (PluginMetadata pm : plugins) {
+            if (pm.images != null) {
+                for (Image image : pm.images) {
+                    addStored(referenced, image.image);
+                    addStored(referenced, image.thumbnail);
+                    if (image.variants != null) {
+                        for (ImageVariant variant : image.variants) {
+                            addStored(referenced, variant.image);
+                        }
+                    }
+                }
+            }
+            if (pm.thumbnail_sprite != null) {
+                addStored(referenced, pm.thumbnail_sprite.image);
+            }
+        }
+        return referenced;
+    }
+
+    private void addStored(Set<String> set, String url) {
+        if (url != null && url.startsWith(urlPrefix) && STORED_FILE.matcher(url.substring(urlPrefix.length())).matches()) {
+            set.add(url);
+        }
+    }
+
+    /**
+     * Returns the truncated SHA-256 hash of the file content, in hexadecimal.
+     *
+     * @param file file
+     * @return hash
+     * @throws IOException if an io error occurs
+     */
+    protected static String hash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+        InputStream is = Files.newInputStream(file.toPath());
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            is.close();
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : Arrays.copyOf(digest.digest(), HASH_LENGTH / 2)) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+import org.codehaus.plexus.util.cli.Commandline;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+
+/**
+ * Aggregates the events printed by the JDK's <em>jfr print</em> tool per
+ * method, keeping only methods of the given packages.
+ * <p>
+ * Each event is attributed to the top-most frame of its stack trace that
+ * belongs to one of the packages. Events without such frame are ignored.
+ * Execution samples count for one, allocation events for their weight or
+ * size in bytes.
+ */
+public class JfrSummary implements StreamConsumer {
+
+    private static final Pattern EVENT_START = Pattern.compile("^(jdk\\.\\w+)\\s*\\{\\s*$");
+    private static final Pattern SIZE = Pattern.compile("^\\s*(weight|allocationSize)\\s*=\\s*([0-9.,]+)\\s*(bytes|kB|MB|GB)?\\s*$");
+    private static final Pattern FRAME = Pattern.compile("^\\s+([\\w$.<>]+)\\(.*?\\)(\\s+line:\\s*\\d+)?.*$");
+
+    private final List<String> packages;
+    private final Map<String, Long> totals = new HashMap<String, Long>();
+
+    private String event;
+    private long weight;
+    private boolean inStackTrace;
+    private String method;
+
+    /**
+     * @param packages package prefixes of the methods to keep, all methods if
+     * empty
+     */
+    public JfrSummary(List<String> packages) {
+        this.packages = packages;
+    }
+
+    @Override
+    public void consumeLine(String line) {
+        Matcher start = EVENT_START.matcher(line);
+        if (start.matches()) {
+            event = start.group(1);
+            weight = 1;
+            inStackTrace = false;
+            method = null;
+            return;
+        }
+        if (event == null) {
+            return;
+        }
+        if (line.equals("}")) {
+            if (method != null) {
+                Long total = totals.get(method);
+                totals.put(method, (total != null ? total : 0) + weight);
+            }
+            event = null;
+            return;
+        }
+        if (inStackTrace) {
+            if (line.trim().equals("]")) {
+                inStackTrace = false;
+            } else if (method == null) {
+                Matcher frame = FRAME.matcher(line);
+                if (frame.matches() && isIncluded(frame.group(1))) {
+                    method = frame.group(1);
+                }
+            }
+            return;
+        }
+        if (line.trim().startsWith("stackTrace = [")) {
+            inStackTrace = true;
+            return;
+        }
+        Matcher size = SIZE.matcher(line);
+        if (size.matches()) {
+            weight = parseSize(size.group(2), size.group(3));
+        }
+    }
+
+    /**
+     * Returns the methods with the highest totals.
+     *
+     * @param count maximum number of methods
+     * @return list of method names and totals, sorted by decreasing total
+     */
+    protected List<Map.Entry<String, Long>> getTop(int count) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(totals.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> e1, Map.Entry<String, Long> e2) {
+                return e2.getValue().compareTo(e1.getValue());
+            }
+        });
+        return entries.subList(0, Math.min(count, entries.size()));
+    }
+
+    /**
+     * Print the CPU-hot and top allocating methods of the recording, using the
+     * <em>jfr</em> tool of the JDK.
+     *
+     * @param jfrTool <em>jfr</em> executable
+     * @param recording recording file
+     * @param packages package prefixes of the methods to keep
+     * @param count number of methods to print
+     * @param log log
+     * @throws CommandLineException if the tool can't be executed
+     */
+    protected static void printSummary(File jfrTool, File recording, List<String> packages, int count, Log log) throws CommandLineException {
+        JfrSummary cpu = print(jfrTool, recording, "jdk.ExecutionSample", packages, log);
+        log.info("CPU-hot methods (execution samples):");
+        printTop(cpu, count, false, log);
+
+        // Allocation samples exist since JDK 16, use TLAB events before
+        JfrSummary allocations = print(jfrTool, recording, "jdk.ObjectAllocationSample", packages, log);
+        if (allocations.totals.isEmpty()) {
+            allocations = print(jfrTool, recording, "jdk.ObjectAllocationInNewTLAB", packages, log);
+        }
+        log.info("Top allocating methods:");
+        printTop(allocations, count, true, log);
+    }
+
+    private static JfrSummary print(File jfrTool, File recording, String event, List<String> packages, final Log log) throws CommandLineException {
+        Commandline cmdLine = new Commandline();
+        cmdLine.setExecutable(jfrTool.getAbsolutePath());
+        cmdLine.addArguments(new String[]{"print", "--stack-depth", "64", "--events", event, recording.getAbsolutePath()});
+        JfrSummary summary = new JfrSummary(packages);
+        StreamConsumer err = new StreamConsumer() {
+            @Override
+            public void consumeLine(String line) {
+                log.warn(line);
+            }
+        };
+        int exitCode = CommandLineUtils.executeCommandLine(cmdLine, summary, err);
+        if (exitCode != 0) {
+            log.warn("The jfr tool failed with exit code " + exitCode);
+        }
+        return summary;
+    }
+
+    private static void printTop(JfrSummary summary, int count, boolean bytes, Log log) {
+        List<Map.Entry<String, Long>> top = summary.getTop(count);
+        if (top.isEmpty()) {
+            log.info("  No event in the selected packages");
+        }
+        for (Map.Entry<String, Long> entry : top) {
+            log.info("  " + (bytes ? NbmUtils.formatSize(entry.getValue()) : entry.getValue() + " samples") + "  " + entry.getKey());
+        }
+    }
+
+    private boolean isIncluded(String method) {
+        if (packages == null || packages.isEmpty()) {
+            return true;
+        }
+        for (String pkg : packages) {
+            if (method.startsWith(pkg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long parseSize(String value, String unit) {
+        double size = Double.parseDouble(value.replace(",", ""));
+        if ("kB".equals(unit)) {
+            size *= 1024;
+        } else if ("MB".equals(unit)) {
+            size *= 1024 * 1024;
+        } else if ("GB".equals(unit)) {
+            size *= 1024 * 1024 * 1024;
+        }
+        return (long) size;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+
+/**
+ * Forwards the console lines of the application to the Maven log from a
+ * background thread, so the application never waits for the Maven console.
+ * <p>
+ * Lines are queued in a bounded queue and dropped when it's full. Lines below
+ * the minimum level or not matching the include and exclude patterns are
+ * filtered out, and identical consecutive lines are collapsed. All lines can
+ * also be written to a rolling log file, before the queue so lines dropped
+ * from the Maven log are still in the file.
+ */
+public class LogPump implements StreamConsumer {
+
+    private static final Pattern LEVEL = Pattern.compile("^(SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST)\\b.*");
+    private static final String[] LEVELS = {"FINEST", "FINER", "FINE", "CONFIG", "INFO", "WARNING", "SEVERE"};
+    private static final String END = new String("end");
+
+    private final Log log;
+    private final BlockingQueue<String> queue;
+    private final int minLevel;
+    private final Pattern include;
+    private final Pattern exclude;
+    private final File logFile;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+
+    // Accessed by the pump thread only
+    private int level = indexOf("INFO");
+    private String previousLine;
+    private int repeats;
+
+    // Guarded by this, lines are written by the threads reading the console
+    private Writer writer;
+    private long fileSize;
+    private boolean fileFailed;
+
+    /**
+     * Creates the pump and starts its thread.
+     *
+     * @param log log
+     * @param capacity maximum number of lines waiting to be logged
+     * @param minLevel minimum level of the lines logged, e.g. <em>INFO</em>
+     * @param include pattern the lines logged must contain, or null
+     * @param exclude pattern the lines logged must not contain, or null
+     * @param logFile file to write all lines to, or null
+     * @param maxFileSize size in bytes after which the file is rolled
+     * @param maxFiles number of rolled files kept
+     */
+    public LogPump(Log log, int capacity, String minLevel, Pattern include, Pattern exclude, File logFile, long maxFileSize, int maxFiles) {
+        this.log = log;
+        this.queue = new ArrayBlockingQueue<String>(capacity);
+        this.minLevel = indexOf(minLevel);
+        this.include = include;
+        this.exclude = exclude;
+        this.logFile = logFile;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                pump();
+            }
+        }, "Gephi log pump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void consumeLine(String line) {
+        write(line);
+        if (!queue.offer(line)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Log the remaining lines and stop the pump.
+     *
+     * @throws InterruptedException if interrupted while waiting for the pump
+     */
+    public void close() throws InterruptedException {
+        while (thread.isAlive() && !queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+        }
+        thread.join();
+        closeFile();
+    }
+
+    private void pump() {
+        try {
+            while (true) {
+                String line = queue.take();
+                if (line == END) {
+                    break;
+                }
+                forward(line);
+                long count = dropped.getAndSet(0);
+                if (count > 0) {
+                    log.warn(count + " console line(s) dropped, the Maven console can't keep up");
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushRepeats();
+        }
+    }
+
+    private void forward(String line) {
+        Matcher matcher = LEVEL.matcher(line);
+        if (matcher.matches()) {
+            level = indexOf(matcher.group(1));
+        }
+        // Lines without a level, e.g. stack traces, keep the previous one
+        if (level < minLevel
+                || (include != null && !include.matcher(line).find())
+                || (exclude != null && exclude.matcher(line).find())) {
+            // A filtered line breaks the run of identical lines
+            flushRepeats();
+            previousLine = null;
+            return;
+        }
+        if (line.equals(previousLine)) {
+            repeats++;
+            return;
+        }
+        flushRepeats();
+        previousLine = line;
+        if (level >= indexOf("SEVERE")) {
+            log.error(line);
+        } else if (level >= indexOf("WARNING")) {
+            log.warn(line);
+        } else if (level >= indexOf("INFO")) {
+            log.info(line);
+        } else {
+            log.debug(line);
+        }
+    }
+
+    private void flushRepeats() {
+        if (repeats > 0) {
+            log.info("(previous line repeated " + repeats + " more time(s))");
+            repeats = 0;
+        }
+    }
+
+    private synchronized void write(String line) {
+        if (logFile == null || fileFailed) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                logFile.getParentFile().mkdirs();
+                writer = new OutputStreamWriter(new FileOutputStream(logFile), StandardCharsets.UTF_8);
+                fileSize = 0;
+            }
+            writer.write(line);
+            writer.write(System.lineSeparator());
+            fileSize += line.length() + 1;
+            if (maxFileSize > 0 && fileSize >= maxFileSize) {
+                closeFile();
+                roll();
+            }
+        } catch (IOException ex) {
+            log.warn("Can't write the log file '" + logFile.getAbsolutePath() + "', it's disabled");
+            log.debug(ex);
+            fileFailed = true;
+            closeFile();
+        }
+    }
+
+    private void roll() {
+        File oldest = new File(logFile.getPath() + "." + maxFiles);
+        oldest.delete();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            File file = new File(logFile.getPath() + "." + i);
+            if (file.exists()) {
+                file.renameTo(new File(logFile.getPath() + "." + (i + 1)));
+            }
+        }
+        if (maxFiles > 0) {
+            logFile.renameTo(new File(logFile.getPath() + ".1"));
+        }
+    }
+
+    private synchronized void closeFile() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                log.debug(ex);
+            }
+            writer = null;
+        }
+    }
+
+    private static int indexOf(String level) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equalsIgnoreCase(level)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown log level '" + level + "', should be one of SEVERE, WARNING, INFO, CONFIG, FINE, FINER or FINEST");
+    }
+}
@@ -24,9 +24,14 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.apache.tools.ant.taskdefs.Manifest;
@@ -48,12 +53,37 @@ public class ManifestUtils {
         "Appearance", "Clustering", "Other Category"
     };
 
+    /**
+     * Parsed manifests and loaded bundles of each build session, released
+     * with the session.
+     */
+    private static final Map<MavenSession, SessionCache> SESSION_CACHES = Collections.synchronizedMap(new WeakHashMap<MavenSession, SessionCache>());
+
     private final Log log;
     private final String sourceManifestFile;
+    private final SessionCache cache;
 
-    public ManifestUtils(String sourceManifestFile, Log log) {
+    /**
+     * @param sourceManifestFile manifest path, relative to the modules
+     * @param session build session the cache is shared with, or null to cache
+     * in this instance only
+     * @param log log
+     */
+    public ManifestUtils(String sourceManifestFile, MavenSession session, Log log) {
         this.sourceManifestFile = sourceManifestFile;
         this.log = log;
+        if (session == null) {
+            this.cache = new SessionCache();
+        } else {
+            synchronized (SESSION_CACHES) {
+                SessionCache sessionCache = SESSION_CACHES.get(session);
+                if (sessionCache == null) {
+                    sessionCache = new SessionCache();
+                    SESSION_CACHES.put(session, sessionCache);
+                }
+                this.cache = sessionCache;
+            }
+        }
     }
 
     /**
@@ -95,25 +125,11 @@ public class ManifestUtils {
             if (!bundlerFile.exists()) {
                 throw new MojoExecutionException("The '" + path + "' file can't be found");
             }
-            Properties prop = new Properties();
-            FileReader bundleReader = null;
-            try {
-                bundleReader = new FileReader(bundlerFile);
-                prop.load(bundleReader);
-                brandingName = prop.getProperty("OpenIDE-Module-Name", brandingName);
-                brandingDisplayCategory = prop.getProperty("OpenIDE-Module-Display-Category", brandingDisplayCategory);
-                brandingShortDescription = prop.getProperty("OpenIDE-Module-Short-Description", brandingShortDescription);
-                brandingLongDescrption = prop.getProperty("OpenIDE-Module-Long-Description", brandingLongDescrption);
-            } catch (IOException e) {
-                throw new MojoExecutionException("Error while reading '" + bundlerFile.getAbsolutePath() + "'", e);
-            } finally {
-                if (bundleReader != null) {
-                    try {
-                        bundleReader.close();
-                    } catch (IOException ex) {
-                    }
-                }
-            }
+            Properties prop = getBundle(bundlerFile);
+            brandingName = prop.getProperty("OpenIDE-Module-Name", brandingName);
+            brandingDisplayCategory = prop.getProperty("OpenIDE-Module-Display-Category", brandingDisplayCategory);
+            brandingShortDescription = prop.getProperty("OpenIDE-Module-Short-Description", brandingShortDescription);
+            brandingLongDescrption = prop.getProperty("OpenIDE-Module-Long-Description", brandingLongDescrption);
         }
 
         if (brandingName == null || brandingName.isEmpty()) {
@@ -141,6 +157,8 @@ public class ManifestUtils {
 
     /**
      * Find and return the Manifest for the given project.
+     * <p>
+     * Manifests are parsed once per build session, unless the file is modified.
      *
      * @param proj project
      * @return manifest
@@ -153,6 +171,18 @@ public class ManifestUtils {
             throw new MojoExecutionException("Cannot locate a manifest.mf file at " + manifestFile.getAbsolutePath() + " for project " + proj.getName());
         }
 
+        String key = manifestFile.getAbsolutePath();
+        CachedFile<Manifest> cached = cache.manifests.get(key);
+        if (cached != null && cached.isValid(manifestFile)) {
+            log.debug("Using cached manifest '" + key + "'");
+            return cached.value;
+        }
+        Manifest manifest = parseManifest(manifestFile);
+        cache.manifests.put(key, new CachedFile<Manifest>(manifestFile, manifest));
+        return manifest;
+    }
+
+    private Manifest parseManifest(File manifestFile) throws MojoExecutionException {
         // Check validity
         ExamineManifest examinator = new ExamineManifest(log);
         examinator.setManifestFile(manifestFile);
@@ -174,8 +204,75 @@ public class ManifestUtils {
         return manifest;
     }
 
+    /**
+     * Load and return the localizing bundle at the given path.
+     * <p>
+     * Bundles are loaded once per build session, unless the file is modified.
+     *
+     * @param bundleFile bundle file
+     * @return bundle properties
+     * @throws MojoExecutionException if an error occurs
+     */
+    protected Properties getBundle(File bundleFile) throws MojoExecutionException {
+        String key = bundleFile.getAbsolutePath();
+        CachedFile<Properties> cached = cache.bundles.get(key);
+        if (cached != null && cached.isValid(bundleFile)) {
+            log.debug("Using cached bundle '" + key + "'");
+            return cached.value;
+        }
+
+        Properties prop = new Properties();
+        FileReader bundleReader = null;
+        try {
+            bundleReader = new FileReader(bundleFile);
+            prop.load(bundleReader);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error while reading '" + bundleFile.getAbsolutePath() + "'", e);
+        } finally {
+            if (bundleReader != null) {
+                try {
+                    bundleReader.close();
+                } catch (IOException ex) {
+                }
+            }
+        }
+        cache.bundles.put(key, new CachedFile<Properties>(bundleFile, prop));
+        return prop;
+    }
+
     protected static boolean validateCategory(String category) {
         Set<String> allowedCategories = new HashSet<String>(Arrays.asList(CATEGORIES));
         return allowedCategories.contains(category);
     }
+
+    /**
+     * Manifests and bundles cached for a build session, keyed by absolute
+     * path.
+     */
+    private static class SessionCache {
+
+        private final Map<String, CachedFile<Manifest>> manifests = new ConcurrentHashMap<String, CachedFile<Manifest>>();
+        private final Map<String, CachedFile<Properties>> bundles = new ConcurrentHashMap<String, CachedFile<Properties>>();
+    }
+
+    /**
+     * Cached value read from a file, valid as long as the file's modification
+     * time and size don't change.
+     */
+    private static class CachedFile<T> {
+
+        private final long lastModified;
+        private final long length;
+        private final T value;
+
+        CachedFile(File file, T value) {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.value = value;
+        }
+
+        boolean isValid(File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
 }
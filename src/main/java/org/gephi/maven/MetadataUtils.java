@@ -20,7 +20,6 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.LineNumberReader;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -30,7 +29,6 @@ import org.apache.maven.model.Scm;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
-import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.gephi.maven.json.Author;
 
 /**
@@ -45,14 +43,7 @@ public class MetadataUtils {
      * @return license name or null if not found
      */
     protected static String getLicenseName(MavenProject project) {
-        Plugin nbmPlugin = lookupNbmPlugin(project);
-        if (nbmPlugin != null) {
-            Xpp3Dom config = (Xpp3Dom) nbmPlugin.getConfiguration();
-            if (config != null && config.getChild("licenseName") != null) {
-                return config.getChild("licenseName").getValue();
-            }
-        }
-        return null;
+        return NbmConfiguration.get(project).getLicenseName();
     }
 
     /**
@@ -62,42 +53,21 @@ public class MetadataUtils {
      * @return homepage or null if not found
      */
     protected static String getHomepage(MavenProject project) {
-        Plugin nbmPlugin = lookupNbmPlugin(project);
-        if (nbmPlugin != null) {
-            Xpp3Dom config = (Xpp3Dom) nbmPlugin.getConfiguration();
-            if (config != null && config.getChild("homePageUrl") != null) {
-                return config.getChild("homePageUrl").getValue();
-            }
-        }
-        return null;
+        return NbmConfiguration.get(project).getHomePageUrl();
     }
 
     /**
      * Lookup and returns the value of the <em>author</em> configuration.
      * <p>
      * The configuration string is split based on ',' so multiple authors can be
-     * defined.
+     * defined. The <em>authorEmail</em> and <em>authorUrl</em> configurations
+     * are split the same way and matched by position.
      *
      * @param project project
      * @return list of authors or null if not found
      */
     protected static List<Author> getAuthors(MavenProject project) {
-        Plugin nbmPlugin = lookupNbmPlugin(project);
-        if (nbmPlugin != null) {
-            Xpp3Dom config = (Xpp3Dom) nbmPlugin.getConfiguration();
-            if (config != null && config.getChild("author") != null) {
-                String authorName = config.getChild("author").getValue();
-                String authorEmail = config.getChild("authorEmail") != null ? config.getChild("authorEmail").getValue() : null;
-                String authorUrl = config.getChild("authorUrl") != null ? config.getChild("authorUrl").getValue() : null;
-                Author author = new Author();
-                author.name = authorName;
-                author.email = authorEmail;
-                author.link = authorUrl;
-
-                return Arrays.asList(new Author[]{author});
-            }
-        }
-        return null;
+        return NbmConfiguration.get(project).getAuthors();
     }
 
     /**
@@ -154,12 +124,9 @@ public class MetadataUtils {
      * @return source code url or null
      */
     protected static String getSourceCode(MavenProject project, Log log) {
-        Plugin nbmPlugin = lookupNbmPlugin(project);
-        if (nbmPlugin != null) {
-            Xpp3Dom config = (Xpp3Dom) nbmPlugin.getConfiguration();
-            if (config != null && config.getChild("sourceCodeUrl") != null) {
-                return config.getChild("sourceCodeUrl").getValue();
-            }
+        String sourceCodeUrl = NbmConfiguration.get(project).getSourceCodeUrl();
+        if (sourceCodeUrl != null) {
+            return sourceCodeUrl;
         }
 
         Scm scm = project.getScm();
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+import org.codehaus.plexus.util.cli.Commandline;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+
+/**
+ * Watches the sources of the reactor modules, rebuilds the modules that
+ * changed and reloads them in the running Gephi instance.
+ * <p>
+ * The rebuilt module jar replaces the one in the cluster directory and the
+ * running instance is asked to reload it with the <em>--reload</em> option,
+ * which is forwarded to the instance owning the same userdir.
+ */
+public class ModuleWatcher {
+
+    /**
+     * Quiet period after the last change before rebuilding, so a save of
+     * several files triggers a single build.
+     */
+    private static final long QUIET_PERIOD_MS = 500;
+
+    private final List<MavenProject> modules;
+    private final File mavenExecutable;
+    private final List<File> clusters;
+    private final File gephiExecutable;
+    private final List<String> gephiArguments;
+    private final Log log;
+    private final Map<WatchKey, MavenProject> watchedFolders = new HashMap<WatchKey, MavenProject>();
+
+    /**
+     * Creates the watcher.
+     *
+     * @param modules modules to watch
+     * @param mavenExecutable Maven executable used to rebuild the modules
+     * @param clusters cluster directories the application runs with
+     * @param gephiExecutable application launcher
+     * @param gephiArguments launcher arguments selecting the same userdir as
+     * the running application
+     * @param log log
+     */
+    public ModuleWatcher(List<MavenProject> modules, File mavenExecutable, List<File> clusters, File gephiExecutable, List<String> gephiArguments, Log log) {
+        this.modules = modules;
+        this.mavenExecutable = mavenExecutable;
+        this.clusters = clusters;
+        this.gephiExecutable = gephiExecutable;
+        this.gephiArguments = gephiArguments;
+        this.log = log;
+    }
+
+    /**
+     * Watch the modules until the application exits.
+     *
+     * @param application running application
+     * @throws IOException if the sources can't be watched
+     * @throws InterruptedException if interrupted while watching
+     */
+    protected void watch(Future<?> application) throws IOException, InterruptedException {
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        try {
+            for (MavenProject module : modules) {
+                File sources = new File(module.getBasedir(), "src" + File.separator + "main");
+                if (sources.isDirectory()) {
+                    register(watchService, sources.toPath(), module);
+                }
+            }
+            log.info("Watching " + modules.size() + " modules for changes");
+
+            Set<MavenProject> changed = new LinkedHashSet<MavenProject>();
+            long lastChange = 0;
+            while (!application.isDone()) {
+                WatchKey key = watchService.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    MavenProject module = watchedFolders.get(key);
+                    Path folder = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW || module == null) {
+                            continue;
+                        }
+                        Path path = folder.resolve((Path) event.context());
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                            register(watchService, path, module);
+                        }
+                        log.debug("Change detected in '" + path + "'");
+                        changed.add(module);
+                        lastChange = System.currentTimeMillis();
+                    }
+                    if (!key.reset()) {
+                        watchedFolders.remove(key);
+                    }
+                } else if (!changed.isEmpty() && System.currentTimeMillis() - lastChange >= QUIET_PERIOD_MS) {
+                    for (MavenProject module : changed) {
+                        if (rebuild(module)) {
+                            deploy(module);
+                        }
+                    }
+                    changed.clear();
+                }
+            }
+        } finally {
+            watchService.close();
+        }
+    }
+
+    private void register(final WatchService watchService, Path root, final MavenProject module) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedFolders.put(key, module);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private boolean rebuild(MavenProject module) {
+        log.info("Rebuilding module '" + module.getName() + "'");
+        long start = System.currentTimeMillis();
+        Commandline cmdLine = new Commandline();
+        cmdLine.setExecutable(mavenExecutable.getAbsolutePath());
+        cmdLine.setWorkingDirectory(module.getBasedir());
+        cmdLine.addArguments(new String[]{"-q", "-f", module.getFile().getAbsolutePath(), "package", "-DskipTests"});
+        StreamConsumer out = new StreamConsumer() {
+
+            @Override
+            public void consumeLine(String line) {
+                log.info(line);
+            }
+        };
+        try {
+            int exitCode = CommandLineUtils.executeCommandLine(cmdLine, out, out);
+            if (exitCode != 0) {
+                log.error("The build of module '" + module.getName() + "' failed, it won't be reloaded");
+                return false;
+            }
+        } catch (CommandLineException ex) {
+            log.error("Can't run Maven to rebuild module '" + module.getName() + "'", ex);
+            return false;
+        }
+        log.info("Module '" + module.getName() + "' rebuilt in " + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    private void deploy(MavenProject module) {
+        List<File> builtJars = findModuleJars(new File(module.getBasedir(), "target" + File.separator + "nbm"));
+        if (builtJars.isEmpty()) {
+            log.warn("No module jar found in the NBM build folder of '" + module.getName() + "'");
+            return;
+        }
+        for (File builtJar : builtJars) {
+            boolean deployed = false;
+            for (File cluster : clusters) {
+                File target = new File(cluster, "modules" + File.separator + builtJar.getName());
+                if (target.exists()) {
+                    try {
+                        Files.copy(builtJar.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    } catch (IOException ex) {
+                        log.error("Can't copy '" + builtJar.getAbsolutePath() + "' to '" + target.getAbsolutePath() + "'", ex);
+                        continue;
+                    }
+                    deployed = true;
+                    reload(target);
+                }
+            }
+            if (!deployed) {
+                log.warn("The module jar '" + builtJar.getName() + "' isn't in any cluster, run 'mvn package' and restart to install it");
+            }
+        }
+    }
+
+    private void reload(File moduleJar) {
+        Commandline cmdLine = new Commandline();
+        cmdLine.setExecutable(gephiExecutable.getAbsolutePath());
+        cmdLine.addArguments(gephiArguments.toArray(new String[0]));
+        cmdLine.addArguments(new String[]{"--reload", moduleJar.getAbsolutePath()});
+        log.info("Reloading '" + moduleJar.getName() + "'");
+        log.debug("Executing: " + cmdLine.toString());
+        StreamConsumer out = new StreamConsumer() {
+
+            @Override
+            public void consumeLine(String line) {
+                log.info(line);
+            }
+        };
+        try {
+            int exitCode = CommandLineUtils.executeCommandLine(cmdLine, out, out);
+            if (exitCode != 0) {
+                log.warn("The reload of '" + moduleJar.getName() + "' failed with exit code " + exitCode);
+            }
+        } catch (CommandLineException ex) {
+            log.error("Can't reload '" + moduleJar.getName() + "'", ex);
+        }
+    }
+
+    /**
+     * Returns the module jars in the <em>modules</em> folders of the NBM build
+     * folder, bundled libraries excluded.
+     */
+    private static List<File> findModuleJars(File nbmBuildFolder) {
+        final List<File> result = new ArrayList<File>();
+        if (!nbmBuildFolder.isDirectory()) {
+            return result;
+        }
+        try {
+            Files.walkFileTree(nbmBuildFolder.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    Path parent = file.getParent();
+                    if (file.toString().endsWith(".jar") && parent != null && parent.getFileName().toString().equals("modules")) {
+                        result.add(file.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            return result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.gephi.maven.json.Author;
+
+/**
+ * Typed view of the <em>nbm-maven-plugin</em> configuration of a project.
+ * <p>
+ * The view is built once and stored in the project's context, so it's shared
+ * by all the mojos executed in the same session.
+ */
+public class NbmConfiguration {
+
+    private static final String CONTEXT_KEY = NbmConfiguration.class.getName();
+
+    private final String licenseName;
+    private final String homePageUrl;
+    private final String sourceCodeUrl;
+    private final List<Author> authors;
+    private final String rawConfiguration;
+
+    private NbmConfiguration(Plugin nbmPlugin) {
+        Xpp3Dom config = nbmPlugin != null ? (Xpp3Dom) nbmPlugin.getConfiguration() : null;
+        this.licenseName = getValue(config, "licenseName");
+        this.homePageUrl = getValue(config, "homePageUrl");
+        this.sourceCodeUrl = getValue(config, "sourceCodeUrl");
+        this.authors = parseAuthors(getValue(config, "author"), getValue(config, "authorEmail"), getValue(config, "authorUrl"));
+        this.rawConfiguration = config != null ? config.toString() : "";
+    }
+
+    /**
+     * Returns the configuration view of the given project.
+     *
+     * @param project project
+     * @return configuration, never null
+     */
+    protected static NbmConfiguration get(MavenProject project) {
+        Object cached = project.getContextValue(CONTEXT_KEY);
+        if (cached instanceof NbmConfiguration) {
+            return (NbmConfiguration) cached;
+        }
+        NbmConfiguration configuration = new NbmConfiguration(MetadataUtils.lookupNbmPlugin(project));
+        project.setContextValue(CONTEXT_KEY, configuration);
+        return configuration;
+    }
+
+    public String getLicenseName() {
+        return licenseName;
+    }
+
+    public String getHomePageUrl() {
+        return homePageUrl;
+    }
+
+    public String getSourceCodeUrl() {
+        return sourceCodeUrl;
+    }
+
+    /**
+     * Returns the authors, or null if no <em>author</em> is configured.
+     *
+     * @return unmodifiable list of authors or null
+     */
+    public List<Author> getAuthors() {
+        return authors;
+    }
+
+    /**
+     * Returns the configuration as XML, e.g. to detect changes.
+     *
+     * @return configuration string, empty if none
+     */
+    public String getRawConfiguration() {
+        return rawConfiguration;
+    }
+
+    /**
+     * Build the list of authors from the configuration values. Each value is
+     * split based on ',' and emails and urls are matched with names by
+     * position.
+     *
+     * @param names author names
+     * @param emails author emails, may be null
+     * @param urls author urls, may be null
+     * @return list of authors or null if no names are set
+     */
+    protected static List<Author> parseAuthors(String names, String emails, String urls) {
+        if (names == null) {
+            return null;
+        }
+        String[] nameValues = names.split(",");
+        String[] emailValues = emails != null ? emails.split(",") : new String[0];
+        String[] urlValues = urls != null ? urls.split(",") : new String[0];
+        List<Author> result = new ArrayList<Author>();
+        for (int i = 0; i < nameValues.length; i++) {
+            String name = emptyToNull(nameValues[i]);
+            if (name == null) {
+                continue;
+            }
+            Author author = new Author();
+            author.name = name;
+            author.email = i < emailValues.length ? emptyToNull(emailValues[i]) : null;
+            author.link = i < urlValues.length ? emptyToNull(urlValues[i]) : null;
+            result.add(author);
+        }
+        return result.isEmpty() ? null : Collections.unmodifiableList(result);
+    }
+
+    private static String getValue(Xpp3Dom config, String name) {
+        if (config != null && config.getChild(name) != null) {
+            return config.getChild(name).getValue();
+        }
+        return null;
+    }
+
+    private static String emptyToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
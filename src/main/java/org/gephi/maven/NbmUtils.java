@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * NBM files utilities.
+ */
+public class NbmUtils {
+
+    /**
+     * Folder of the libraries bundled in a NBM.
+     */
+    protected static final String EXT_FOLDER = "netbeans/modules/ext/";
+
+    /**
+     * Returns the NBM file built for the module. The file may not exist if the
+     * module hasn't been packaged yet.
+     *
+     * @param module module
+     * @return NBM file
+     */
+    protected static File getNbmFile(MavenProject module) {
+        File folder = new File(module.getBasedir(), "target");
+        return new File(folder, module.getArtifactId() + "-" + module.getVersion() + ".nbm");
+    }
+
+    /**
+     * Returns the module jar built for the module. The file may not exist if
+     * the module hasn't been packaged yet.
+     *
+     * @param module module
+     * @return module jar file
+     */
+    protected static File getModuleJar(MavenProject module) {
+        File folder = new File(module.getBasedir(), "target");
+        return new File(folder, module.getArtifactId() + "-" + module.getVersion() + ".jar");
+    }
+
+    /**
+     * Returns true if the artifact exists and is at least as recent as the
+     * module's <em>pom.xml</em> and sources, so it reflects them. Artifacts
+     * left by a previous build, e.g. when validating before
+     * <em>package</em>, aren't current.
+     *
+     * @param module module
+     * @param artifact built file, e.g. the NBM
+     * @return true if the artifact is current
+     */
+    protected static boolean isCurrent(MavenProject module, File artifact) {
+        if (!artifact.exists()) {
+            return false;
+        }
+        long built = artifact.lastModified();
+        if (module.getFile() != null && module.getFile().lastModified() > built) {
+            return false;
+        }
+        return !hasNewerFile(new File(module.getBasedir(), "src"), built);
+    }
+
+    private static boolean hasNewerFile(File folder, long time) {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return false;
+        }
+        for (File file : files) {
+            if (file.isDirectory() ? hasNewerFile(file, time) : file.lastModified() > time) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the NBM entry name of the module configuration, which tells if
+     * the module is eager or autoload.
+     *
+     * @param codeNameBase module code name base, e.g. <em>org.foo.bar</em>
+     * @return entry name
+     */
+    protected static String getModuleConfigEntry(String codeNameBase) {
+        return "netbeans/config/Modules/" + codeNameBase.replace('.', '-') + ".xml";
+    }
+
+    /**
+     * Returns the libraries bundled in the NBM and their uncompressed size.
+     *
+     * @param nbmFile NBM file
+     * @return map of entry names to sizes, in the NBM order
+     * @throws IOException if the NBM can't be read
+     */
+    protected static Map<String, Long> getBundledJars(File nbmFile) throws IOException {
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        ZipFile zip = new ZipFile(nbmFile);
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (isBundledJar(entry.getName())) {
+                    result.put(entry.getName(), entry.getSize());
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the NBM entry is a bundled library.
+     *
+     * @param name entry name
+     * @return true if bundled jar
+     */
+    protected static boolean isBundledJar(String name) {
+        return name.startsWith(EXT_FOLDER) && name.endsWith(".jar");
+    }
+
+    /**
+     * Format a size in bytes for display.
+     *
+     * @param bytes size
+     * @return size with unit
+     */
+    protected static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format(Locale.ENGLISH, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ENGLISH, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
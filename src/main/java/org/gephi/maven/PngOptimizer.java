@@ -0,0 +1,411 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import javax.imageio.ImageIO;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Lossless PNG size optimizer.
+ * <p>
+ * Images are re-encoded with every applicable color type (palette, grayscale
+ * or truecolor) and every row filter strategy, using maximum deflate
+ * compression. Only the chunks needed to render the image are written, and the
+ * smallest result is kept.
+ */
+public class PngOptimizer {
+
+    private static final byte[] PNG_SIGNATURE = new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private static final int COLOR_TYPE_GRAY = 0;
+    private static final int COLOR_TYPE_RGB = 2;
+    private static final int COLOR_TYPE_PALETTE = 3;
+    private static final int COLOR_TYPE_GRAY_ALPHA = 4;
+    private static final int COLOR_TYPE_RGBA = 6;
+
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_SUB = 1;
+    private static final int FILTER_UP = 2;
+    private static final int FILTER_AVERAGE = 3;
+    private static final int FILTER_PAETH = 4;
+    private static final int FILTER_ADAPTIVE = 5;
+
+    /**
+     * Optimize the given PNG file in place. The file is only rewritten if the
+     * optimized encoding is smaller than the current one.
+     *
+     * @param file PNG file
+     * @param log log
+     * @return number of bytes saved
+     * @throws IOException if an io error occurs
+     */
+    protected static long optimize(File file, Log log) throws IOException {
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            log.debug("Image file '" + file.getAbsolutePath() + "' can't be decoded, skipping optimization");
+            return 0;
+        }
+        if (!isLossless(image)) {
+            log.debug("Image file '" + file.getAbsolutePath() + "' can't be re-encoded without loss, skipping optimization");
+            return 0;
+        }
+        long originalSize = file.length();
+        byte[] optimized = encode(image);
+        if (optimized.length < originalSize) {
+            Files.write(file.toPath(), optimized);
+            log.debug("Optimized image file '" + file.getAbsolutePath() + "' from " + originalSize + " to " + optimized.length + " bytes");
+            return originalSize - optimized.length;
+        }
+        log.debug("Image file '" + file.getAbsolutePath() + "' is already optimal (" + originalSize + " bytes)");
+        return 0;
+    }
+
+    /**
+     * Encode the image into the smallest PNG found.
+     *
+     * @param image image
+     * @return PNG bytes
+     * @throws IOException if an io error occurs
+     */
+    protected static byte[] encode(BufferedImage image) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] argb = toArgb(image);
+
+        boolean opaque = true;
+        boolean gray = true;
+        Map<Integer, Integer> colors = new LinkedHashMap<Integer, Integer>();
+        for (int pixel : argb) {
+            int a = pixel >>> 24;
+            int r = (pixel >> 16) & 0xff;
+            int g = (pixel >> 8) & 0xff;
+            int b = pixel & 0xff;
+            if (a != 0xff) {
+                opaque = false;
+            }
+            if (r != g || g != b) {
+                gray = false;
+            }
+            if (colors.size() <= 256 && !colors.containsKey(pixel)) {
+                colors.put(pixel, colors.size());
+            }
+        }
+
+        // Candidate encodings of the pixels
+        List<Raster> rasters = new ArrayList<Raster>();
+        if (colors.size() <= 256) {
+            rasters.add(paletteRaster(argb, width, height, colors));
+        }
+        if (gray) {
+            rasters.add(grayRaster(argb, width, height, opaque));
+        } else {
+            rasters.add(truecolorRaster(argb, width, height, opaque));
+        }
+
+        byte[] best = null;
+        for (Raster raster : rasters) {
+            for (int filter = FILTER_NONE; filter <= FILTER_ADAPTIVE; filter++) {
+                byte[] png = write(raster, filter);
+                if (best == null || png.length < best.length) {
+                    best = png;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns <code>true</code> if the image can be re-encoded without losing
+     * precision, i.e. all its samples fit in 8 bits and it's either in the
+     * sRGB or in the gray color space.
+     *
+     * @param image image
+     * @return true if no precision would be lost
+     */
+    protected static boolean isLossless(BufferedImage image) {
+        for (int size : image.getColorModel().getComponentSize()) {
+            if (size > 8) {
+                return false;
+            }
+        }
+        ColorSpace colorSpace = image.getColorModel().getColorSpace();
+        return colorSpace.isCS_sRGB() || colorSpace.getType() == ColorSpace.TYPE_GRAY;
+    }
+
+    private static int[] toArgb(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (image.getColorModel().getColorSpace().getType() != ColorSpace.TYPE_GRAY) {
+            return image.getRGB(0, 0, width, height, null, 0, width);
+        }
+
+        // Read gray samples directly, getRGB() would apply a gamma conversion
+        WritableRaster raster = image.getRaster();
+        boolean alpha = raster.getNumBands() > 1;
+        int max = (1 << raster.getSampleModel().getSampleSize(0)) - 1;
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int v = raster.getSample(x, y, 0) * 0xff / max;
+                int a = alpha ? raster.getSample(x, y, 1) : 0xff;
+                argb[y * width + x] = (a << 24) | (v << 16) | (v << 8) | v;
+            }
+        }
+        return argb;
+    }
+
+    private static Raster paletteRaster(int[] argb, int width, int height, Map<Integer, Integer> colors) {
+        // Put translucent entries first so the tRNS chunk can be truncated
+        List<Integer> entries = new ArrayList<Integer>(colors.keySet());
+        List<Integer> sorted = new ArrayList<Integer>(entries.size());
+        for (Integer c : entries) {
+            if ((c >>> 24) != 0xff) {
+                sorted.add(c);
+            }
+        }
+        int translucent = sorted.size();
+        for (Integer c : entries) {
+            if ((c >>> 24) == 0xff) {
+                sorted.add(c);
+            }
+        }
+        Map<Integer, Integer> index = new LinkedHashMap<Integer, Integer>();
+        byte[] plte = new byte[sorted.size() * 3];
+        byte[] trns = new byte[translucent];
+        for (int i = 0; i < sorted.size(); i++) {
+            int c = sorted.get(i);
+            index.put(c, i);
+            plte[i * 3] = (byte) (c >> 16);
+            plte[i * 3 + 1] = (byte) (c >> 8);
+            plte[i * 3 + 2] = (byte) c;
+            if (i < translucent) {
+                trns[i] = (byte) (c >>> 24);
+            }
+        }
+
+        int bitDepth = sorted.size() <= 2 ? 1 : sorted.size() <= 4 ? 2 : sorted.size() <= 16 ? 4 : 8;
+        Raster raster = new Raster(width, height, COLOR_TYPE_PALETTE, bitDepth, 1);
+        raster.plte = plte;
+        raster.trns = translucent > 0 ? trns : null;
+        int pixelsPerByte = 8 / bitDepth;
+        for (int y = 0; y < height; y++) {
+            byte[] row = raster.rows[y];
+            for (int x = 0; x < width; x++) {
+                int i = index.get(argb[y * width + x]);
+                int shift = 8 - bitDepth * (x % pixelsPerByte + 1);
+                row[x / pixelsPerByte] |= (byte) (i << shift);
+            }
+        }
+        return raster;
+    }
+
+    private static Raster grayRaster(int[] argb, int width, int height, boolean opaque) {
+        int channels = opaque ? 1 : 2;
+        Raster raster = new Raster(width, height, opaque ? COLOR_TYPE_GRAY : COLOR_TYPE_GRAY_ALPHA, 8, channels);
+        for (int y = 0; y < height; y++) {
+            byte[] row = raster.rows[y];
+            for (int x = 0; x < width; x++) {
+                int pixel = argb[y * width + x];
+                row[x * channels] = (byte) pixel;
+                if (!opaque) {
+                    row[x * channels + 1] = (byte) (pixel >>> 24);
+                }
+            }
+        }
+        return raster;
+    }
+
+    private static Raster truecolorRaster(int[] argb, int width, int height, boolean opaque) {
+        int channels = opaque ? 3 : 4;
+        Raster raster = new Raster(width, height, opaque ? COLOR_TYPE_RGB : COLOR_TYPE_RGBA, 8, channels);
+        for (int y = 0; y < height; y++) {
+            byte[] row = raster.rows[y];
+            for (int x = 0; x < width; x++) {
+                int pixel = argb[y * width + x];
+                int o = x * channels;
+                row[o] = (byte) (pixel >> 16);
+                row[o + 1] = (byte) (pixel >> 8);
+                row[o + 2] = (byte) pixel;
+                if (!opaque) {
+                    row[o + 3] = (byte) (pixel >>> 24);
+                }
+            }
+        }
+        return raster;
+    }
+
+    private static byte[] write(Raster raster, int filterStrategy) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(PNG_SIGNATURE);
+
+        ByteArrayOutputStream ihdr = new ByteArrayOutputStream(13);
+        DataOutputStream ihdrData = new DataOutputStream(ihdr);
+        ihdrData.writeInt(raster.width);
+        ihdrData.writeInt(raster.height);
+        ihdrData.writeByte(raster.bitDepth);
+        ihdrData.writeByte(raster.colorType);
+        ihdrData.writeByte(0);
+        ihdrData.writeByte(0);
+        ihdrData.writeByte(0);
+        writeChunk(out, "IHDR", ihdr.toByteArray());
+        if (raster.plte != null) {
+            writeChunk(out, "PLTE", raster.plte);
+        }
+        if (raster.trns != null) {
+            writeChunk(out, "tRNS", raster.trns);
+        }
+        writeChunk(out, "IDAT", compress(raster, filterStrategy));
+        writeChunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    private static byte[] compress(Raster raster, int filterStrategy) throws IOException {
+        int bpp = Math.max(1, raster.bitDepth * raster.channels / 8);
+        int rowLength = raster.rows.length > 0 ? raster.rows[0].length : 0;
+        byte[] prior = new byte[rowLength];
+        byte[] filtered = new byte[rowLength];
+        byte[] candidate = new byte[rowLength];
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        DeflaterOutputStream deflaterStream = new DeflaterOutputStream(out, deflater, 65536);
+        try {
+            for (byte[] row : raster.rows) {
+                int filter;
+                if (filterStrategy == FILTER_ADAPTIVE) {
+                    // Minimum sum of absolute differences heuristic
+                    filter = FILTER_NONE;
+                    long bestSum = Long.MAX_VALUE;
+                    for (int f = FILTER_NONE; f <= FILTER_PAETH; f++) {
+                        filterRow(f, row, prior, candidate, bpp);
+                        long sum = 0;
+                        for (byte b : candidate) {
+                            sum += Math.abs((int) b);
+                        }
+                        if (sum < bestSum) {
+                            bestSum = sum;
+                            filter = f;
+                            System.arraycopy(candidate, 0, filtered, 0, rowLength);
+                        }
+                    }
+                } else {
+                    filter = filterStrategy;
+                    filterRow(filter, row, prior, filtered, bpp);
+                }
+                deflaterStream.write(filter);
+                deflaterStream.write(filtered, 0, rowLength);
+                prior = row;
+            }
+            deflaterStream.finish();
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static void filterRow(int filter, byte[] row, byte[] prior, byte[] dest, int bpp) {
+        for (int i = 0; i < row.length; i++) {
+            int raw = row[i] & 0xff;
+            int left = i >= bpp ? row[i - bpp] & 0xff : 0;
+            int up = prior[i] & 0xff;
+            int upLeft = i >= bpp ? prior[i - bpp] & 0xff : 0;
+            int value;
+            switch (filter) {
+                case FILTER_SUB:
+                    value = raw - left;
+                    break;
+                case FILTER_UP:
+                    value = raw - up;
+                    break;
+                case FILTER_AVERAGE:
+                    value = raw - ((left + up) >> 1);
+                    break;
+                case FILTER_PAETH:
+                    value = raw - paeth(left, up, upLeft);
+                    break;
+                default:
+                    value = raw;
+            }
+            dest[i] = (byte) value;
+        }
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        } else if (pb <= pc) {
+            return b;
+        }
+        return c;
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data) throws IOException {
+        DataOutputStream dos = new DataOutputStream(out);
+        byte[] typeBytes = type.getBytes("US-ASCII");
+        dos.writeInt(data.length);
+        dos.write(typeBytes);
+        dos.write(data);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        dos.writeInt((int) crc.getValue());
+        dos.flush();
+    }
+
+    /**
+     * Unfiltered scanlines of an image in a given PNG color type.
+     */
+    private static class Raster {
+
+        private final int width;
+        private final int height;
+        private final int colorType;
+        private final int bitDepth;
+        private final int channels;
+        private final byte[][] rows;
+        private byte[] plte;
+        private byte[] trns;
+
+        Raster(int width, int height, int colorType, int bitDepth, int channels) {
+            this.width = width;
+            this.height = height;
+            this.colorType = colorType;
+            this.bitDepth = bitDepth;
+            this.channels = channels;
+            int rowLength = (width * bitDepth * channels + 7) / 8;
+            this.rows = new byte[height][rowLength];
+        }
+    }
+}
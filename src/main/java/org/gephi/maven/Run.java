@@ -15,23 +15,32 @@
  */
 package org.gephi.maven;
 
-import java.io.BufferedReader;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.codehaus.plexus.util.Os;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.cli.CommandLineCallable;
 import org.codehaus.plexus.util.cli.CommandLineException;
 import org.codehaus.plexus.util.cli.CommandLineUtils;
 import org.codehaus.plexus.util.cli.Commandline;
 import org.codehaus.plexus.util.cli.StreamConsumer;
+import org.gephi.maven.json.ModuleStartup;
 
 /**
  * Run the Gephi application with plug-ins installed.
@@ -71,85 +80,268 @@ public class Run extends AbstractMojo {
     @Parameter(required = true, defaultValue = "${project.build.directory}/gephi")
     private File gephiDirectory;
 
-    @Override
-    public void execute() throws MojoExecutionException {
-        gephiUserdir.mkdirs();
+    /**
+     * Watch the sources of the reactor modules while the application runs,
+     * rebuild the modules that change and reload them in the application.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.run.watch")
+    private boolean watch;
 
-        File appbasedir = gephiDirectory;
+    /**
+     * If the executed project is a reactor project, this will contains the full
+     * list of projects in the reactor.
+     */
+    @Parameter(required = true, readonly = true, property = "reactorProjects")
+    private List<MavenProject> reactorProjects;
 
-        if (!appbasedir.exists()) {
-            throw new MojoExecutionException("The directory that shall contain the gephi application, doesn't exist ("
-                    + appbasedir.getAbsolutePath() + ")\n Please invoke 'mvn package' on the project first");
-        }
+    /**
+     * Maven installation, used to rebuild modules in watch mode.
+     */
+    @Parameter(readonly = true, defaultValue = "${maven.home}")
+    private File mavenHome;
 
-        boolean windows = Os.isFamily("windows");
+    /**
+     * Restore a warmed userdir when the userdir is empty, and capture one
+     * after the first successful run.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.run.userdirTemplate")
+    private boolean userdirTemplate;
 
-        Commandline cmdLine = new Commandline();
-        File exec;
-        if (windows) {
-            exec = new File(appbasedir, "bin\\" + brandingToken + ".exe");
-            // if jdk is 32 or 64-bit
-            String jdkHome = System.getenv("JAVA_HOME");
-            if (jdkHome != null) {
-                if (new File(jdkHome, "jre\\lib\\amd64\\jvm.cfg").exists()) {
-                    File exec64 = new File(appbasedir, "bin\\" + brandingToken + "64.exe");
-                    if (exec64.isFile()) {
-                        exec = exec64;
-                    }
-                }
-            }
-            cmdLine.addArguments(new String[]{"--console", "suppress"});
-        } else {
-            exec = new File(appbasedir, "bin/" + brandingToken);
+    /**
+     * Folder where warmed userdir templates are kept, shared by all projects.
+     */
+    @Parameter(required = true, defaultValue = "${user.home}/.gephi-maven-plugin/userdir-templates", property = "gephi.run.userdirTemplatesDirectory")
+    private File userdirTemplatesDirectory;
+
+    /**
+     * Record an AppCDS archive of the application and plugin clusters at the
+     * first run and use it for the next runs. Requires JDK 13 or later, older
+     * JVMs run without it.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.run.classDataSharing")
+    private boolean classDataSharing;
+
+    /**
+     * Folder of the class data sharing archive.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/cds")
+    private File classDataSharingDirectory;
+
+    /**
+     * Record the application with Java Flight Recorder and print a summary
+     * of the recording when the application exits.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.run.jfr")
+    private boolean jfr;
+
+    /**
+     * Flight Recorder settings, <em>profile</em> or <em>default</em>, or the
+     * path of a custom <em>.jfc</em> file.
+     */
+    @Parameter(defaultValue = "profile", property = "gephi.run.jfr.settings")
+    private String jfrSettings;
+
+    /**
+     * Duration of the recording, e.g. <em>60s</em> or <em>5m</em>. The
+     * recording lasts until the application exits if not set.
+     */
+    @Parameter(property = "gephi.run.jfr.duration")
+    private String jfrDuration;
+
+    /**
+     * Flight Recorder output file.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi.jfr", property = "gephi.run.jfr.file")
+    private File jfrFile;
+
+    /**
+     * Package prefixes of the methods listed in the recording summary.
+     * Defaults to the group ids of the reactor modules.
+     */
+    @Parameter(property = "gephi.run.jfr.packages")
+    private List<String> jfrPackages;
+
+    /**
+     * Log the module system startup with timestamps and report the time spent
+     * enabling each plugin module, running its installer and loading its
+     * layers.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.run.startupAttribution")
+    private boolean startupAttribution;
+
+    /**
+     * Timestamped console log written when the startup is attributed.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi-startup.log")
+    private File startupLogFile;
+
+    /**
+     * JSON report of the startup time per module.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi-startup.json", property = "gephi.run.startupReport")
+    private File startupReportFile;
+
+    /**
+     * Heap and garbage collector profile of this run, one of <em>small</em>,
+     * <em>large-graph</em> or <em>low-latency</em>. The application's
+     * configuration is used if not set.
+     */
+    @Parameter(property = "gephi.run.profile")
+    private String heapProfile;
+
+    /**
+     * Maximum heap overriding the profile's, e.g. <em>8g</em>. Defaults to a
+     * share of the machine memory depending on the profile.
+     */
+    @Parameter(property = "gephi.run.maxHeap")
+    private String maxHeap;
+
+    /**
+     * Garbage collection log written when a profile is set.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi-gc.log", property = "gephi.run.gcLog")
+    private File gcLogFile;
+
+    /**
+     * Minimum level of the Gephi console lines logged, one of <em>SEVERE</em>,
+     * <em>WARNING</em>, <em>INFO</em>, <em>CONFIG</em>, <em>FINE</em>,
+     * <em>FINER</em> or <em>FINEST</em>.
+     */
+    @Parameter(defaultValue = "INFO", property = "gephi.run.log.level")
+    private String logLevel;
+
+    /**
+     * Regular expression the Gephi console lines logged must contain.
+     */
+    @Parameter(property = "gephi.run.log.include")
+    private String logInclude;
+
+    /**
+     * Regular expression the Gephi console lines logged must not contain.
+     */
+    @Parameter(property = "gephi.run.log.exclude")
+    private String logExclude;
+
+    /**
+     * Maximum number of console lines waiting to be logged. Further lines are
+     * dropped until the Maven console catches up.
+     */
+    @Parameter(defaultValue = "10000", property = "gephi.run.log.queueSize")
+    private int logQueueSize;
+
+    /**
+     * Write all Gephi console lines, unfiltered, to a rolling log file.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.run.log.toFile")
+    private boolean logToFile;
+
+    /**
+     * Gephi console log file.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi-console.log", property = "gephi.run.log.file")
+    private File logFile;
+
+    /**
+     * Size in bytes after which the console log file is rolled.
+     */
+    @Parameter(defaultValue = "10485760", property = "gephi.run.log.fileSize")
+    private long logFileMaxSize;
+
+    /**
+     * Number of rolled console log files kept.
+     */
+    @Parameter(defaultValue = "5", property = "gephi.run.log.fileCount")
+    private int logFileCount;
+
+    /**
+     * The Maven project.
+     */
+    @Parameter(required = true, readonly = true, property = "project")
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        gephiUserdir.mkdirs();
+
+        UserdirTemplates templates = null;
+        String templateKey = null;
+        if (userdirTemplate) {
+            templates = new UserdirTemplates(userdirTemplatesDirectory, getLog());
+            templateKey = UserdirTemplates.getKey(project.getProperties().getProperty("gephi.version"), clusters);
+            templates.restore(templateKey, gephiUserdir);
         }
 
-        cmdLine.setExecutable(exec.getAbsolutePath());
+        GephiLauncher launcher = new GephiLauncher(gephiDirectory, brandingToken);
 
+        int exitCode;
         try {
+            launcher.setExtraClusters(clusters);
 
             List<String> args = new ArrayList<String>();
-            args.add("--userdir");
-            args.add(gephiUserdir.getAbsolutePath());
-            args.add("-J-Dnetbeans.logger.console=true");
-            args.add("-J-ea");
-            args.add("--branding");
-            args.add(brandingToken);
-
-            if (clusters != null && !clusters.isEmpty()) {
-                StringBuilder sBuilder = new StringBuilder();
-                for (String cluster : clusters) {
-                    sBuilder.append(cluster);
-                    sBuilder.append(File.pathSeparator);
+            if (heapProfile != null && !heapProfile.isEmpty()) {
+                args.addAll(getHeapProfileOptions(launcher));
+            }
+            if (classDataSharing) {
+                List<File> folders = new ArrayList<File>();
+                folders.add(gephiDirectory);
+                if (clusters != null) {
+                    for (String cluster : clusters) {
+                        folders.add(new File(cluster));
+                    }
                 }
-                sBuilder.deleteCharAt(sBuilder.length() - 1);
+                args.addAll(new ClassDataSharing(classDataSharingDirectory, getLog()).getArguments(folders));
+            }
 
-                File confFile;
-                if (windows) {
-                    confFile = new File(appbasedir, "etc\\" + brandingToken + ".conf");
-                } else {
-                    confFile = new File(appbasedir, "etc/" + brandingToken + ".conf");
+            if (jfr) {
+                if (jfrFile.getParentFile() != null) {
+                    jfrFile.getParentFile().mkdirs();
+                }
+                String recording = "-J-XX:StartFlightRecording=settings=" + jfrSettings + ",filename=" + jfrFile.getAbsolutePath() + ",dumponexit=true";
+                if (jfrDuration != null && !jfrDuration.isEmpty()) {
+                    recording += ",duration=" + jfrDuration;
                 }
-                updateLine(confFile, "#extra_clusters=", "extra_clusters=" + sBuilder.toString());
+                args.add(recording);
             }
 
-            // use JAVA_HOME if set
-            if (System.getenv("JAVA_HOME") != null) {
-                args.add("--jdkhome");
-                args.add(System.getenv("JAVA_HOME"));
+            if (startupAttribution) {
+                args.add("-J-Dorg.netbeans.log.startup=print");
+                args.add("-J-Dorg.netbeans.core.modules.level=FINE");
+                args.add("-J-Dorg.netbeans.core.startup.level=FINE");
             }
 
-            cmdLine.addArguments(args.toArray(new String[0]));
+            Commandline cmdLine = launcher.createCommandline(gephiUserdir, args);
             cmdLine.addArguments(CommandLineUtils.translateCommandline(getDebugAdditionalArguments()));
 
             getLog().info("Executing: " + cmdLine.toString());
-            StreamConsumer out = new StreamConsumer() {
-
-                @Override
-                public void consumeLine(String line) {
-                    getLog().info(line);
+            LogPump pump;
+            try {
+                pump = new LogPump(getLog(), logQueueSize, logLevel, compile(logInclude), compile(logExclude),
+                        logToFile ? logFile : null, logFileMaxSize, logFileCount);
+            } catch (IllegalArgumentException ex) {
+                throw new MojoExecutionException(ex.getMessage(), ex);
+            }
+            StreamConsumer out = pump;
+            PrintWriter startupLog = null;
+            if (startupAttribution) {
+                startupLogFile.getParentFile().mkdirs();
+                startupLog = new PrintWriter(startupLogFile, "UTF-8");
+                out = createStartupLogConsumer(out, startupLog);
+            }
+            try {
+                if (watch) {
+                    // Reload commands reach the running instance through the userdir
+                    exitCode = watchAndRun(cmdLine, out, launcher);
+                } else {
+                    exitCode = CommandLineUtils.executeCommandLine(cmdLine, out, out);
+                }
+            } finally {
+                pump.close();
+                if (startupLog != null) {
+                    startupLog.close();
                 }
-            };
-            CommandLineUtils.executeCommandLine(cmdLine, out, out);
+            }
+        } catch (MojoExecutionException e) {
+            throw e;
         } catch (IOException e) {
             throw new MojoExecutionException("Failed executing Gephi", e);
         } catch (CommandLineException e) {
@@ -157,35 +349,164 @@ public class Run extends AbstractMojo {
         } catch (Exception e) {
             throw new MojoExecutionException("Failed executing Gephi", e);
         }
+
+        if (templates != null && exitCode == 0 && !templates.exists(templateKey)) {
+            templates.capture(templateKey, gephiUserdir);
+        }
+        if (jfr) {
+            summarizeRecording(launcher.isWindows());
+        }
+        if (startupAttribution) {
+            reportStartup();
+        }
     }
 
-    /**
-     * Update the content of <em>file</em> based on search/replace.
-     * <p>
-     * Note that this only works line-by-line.
-     *
-     * @param file file to be updated
-     * @param search string to search
-     * @param replace string to replace
-     * @throws IOException if an io error occurs
-     */
-    private void updateLine(File file, String search, String replace) throws IOException {
-        BufferedReader fileReader = new BufferedReader(new FileReader(file));
-        File newFile = new File(file.getParent(), file.getName() + ".new");
-        PrintWriter writer = new PrintWriter(newFile, "UTF-8");
-        String line;
-
-        while ((line = fileReader.readLine()) != null) {
-            line = line.replace(search, replace);
-            writer.println(line);
-        }
-        fileReader.close();
-        if (writer.checkError()) {
-            throw new IOException("Could not rewrite configuration file");
-        }
-        writer.close();
-        file.delete();
-        newFile.renameTo(file);
+    private List<String> getHeapProfileOptions(GephiLauncher launcher) throws MojoExecutionException {
+        long memory = HeapProfiles.getPhysicalMemory();
+        File gcLog = gcLogFile;
+        if (gcLog.getAbsolutePath().contains(" ")) {
+            getLog().warn("The garbage collection log is disabled, its path can't contain spaces");
+            gcLog = null;
+        } else if (gcLog.getParentFile() != null) {
+            gcLog.getParentFile().mkdirs();
+        }
+        List<String> options = HeapProfiles.getOptions(heapProfile, memory, maxHeap, gcLog, launcher.getJavaVersion());
+        getLog().info("Using the '" + heapProfile + "' profile" + (memory > 0 ? " for " + NbmUtils.formatSize(memory) + " of memory" : "") + ": " + options);
+        return options;
+    }
+
+    private static Pattern compile(String regex) throws MojoExecutionException {
+        if (regex == null || regex.isEmpty()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException ex) {
+            throw new MojoExecutionException("The log filter '" + regex + "' isn't a valid regular expression", ex);
+        }
+    }
+
+    private StreamConsumer createStartupLogConsumer(final StreamConsumer out, final PrintWriter startupLog) {
+        final long start = System.nanoTime();
+        return new StreamConsumer() {
+
+            @Override
+            public void consumeLine(String line) {
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                synchronized (startupLog) {
+                    startupLog.println(StartupAttribution.formatLine(elapsed, line));
+                }
+                out.consumeLine(line);
+            }
+        };
+    }
+
+    private void reportStartup() throws MojoExecutionException {
+        List<MavenProject> modules = new ArrayList<MavenProject>();
+        if (reactorProjects != null) {
+            for (MavenProject proj : reactorProjects) {
+                if (proj.getPackaging().equals("nbm")) {
+                    modules.add(proj);
+                }
+            }
+        }
+        StartupAttribution attribution = new StartupAttribution(UserdirUtils.getCodeNameBases(modules));
+        try {
+            attribution.parse(startupLogFile);
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Error while reading the startup log '" + startupLogFile.getAbsolutePath() + "'", ex);
+        }
+        List<ModuleStartup> results = attribution.getResults();
+        getLog().info("Startup time per module (enable / installer / layers):");
+        if (results.isEmpty()) {
+            getLog().info("  No plugin module found in the startup log");
+        }
+        for (ModuleStartup result : results) {
+            getLog().info(String.format("  %6d ms  %s (%d / %d / %d)", result.total_ms, result.module, result.enable_ms, result.installer_ms, result.layers_ms));
+        }
+
+        if (startupReportFile.getParentFile() != null) {
+            startupReportFile.getParentFile().mkdirs();
+        }
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            FileWriter writer = new FileWriter(startupReportFile);
+            writer.append(gson.toJson(results));
+            writer.close();
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Error while writing the startup report '" + startupReportFile.getAbsolutePath() + "'", ex);
+        }
+        getLog().info("Startup report written to '" + startupReportFile.getAbsolutePath() + "'");
+    }
+
+    private void summarizeRecording(boolean windows) {
+        if (!jfrFile.exists()) {
+            getLog().warn("The Flight Recorder file '" + jfrFile.getAbsolutePath() + "' hasn't been written");
+            return;
+        }
+        getLog().info("Flight Recorder file written to '" + jfrFile.getAbsolutePath() + "'");
+
+        String jfrExecutable = windows ? "bin\\jfr.exe" : "bin/jfr";
+        File jfrTool = null;
+        if (System.getenv("JAVA_HOME") != null && new File(System.getenv("JAVA_HOME"), jfrExecutable).exists()) {
+            jfrTool = new File(System.getenv("JAVA_HOME"), jfrExecutable);
+        } else if (new File(System.getProperty("java.home"), jfrExecutable).exists()) {
+            jfrTool = new File(System.getProperty("java.home"), jfrExecutable);
+        }
+        if (jfrTool == null) {
+            getLog().warn("The 'jfr' tool can't be found, the recording can be opened with JDK Mission Control");
+            return;
+        }
+
+        List<String> packages = jfrPackages;
+        if (packages == null || packages.isEmpty()) {
+            packages = new ArrayList<String>();
+            if (reactorProjects != null) {
+                for (MavenProject proj : reactorProjects) {
+                    if (proj.getPackaging().equals("nbm") && !packages.contains(proj.getGroupId() + ".")) {
+                        packages.add(proj.getGroupId() + ".");
+                    }
+                }
+            }
+        }
+        getLog().info("Summary of the recording for packages " + packages);
+        try {
+            JfrSummary.printSummary(jfrTool, jfrFile, packages, 10, getLog());
+        } catch (CommandLineException ex) {
+            getLog().warn("Can't summarize the recording with '" + jfrTool.getAbsolutePath() + "'");
+            getLog().debug(ex);
+        }
+    }
+
+    private int watchAndRun(Commandline cmdLine, StreamConsumer out, GephiLauncher launcher) throws Exception {
+        List<MavenProject> modules = new ArrayList<MavenProject>();
+        if (reactorProjects != null) {
+            for (MavenProject proj : reactorProjects) {
+                if (proj.getPackaging().equals("nbm")) {
+                    modules.add(proj);
+                }
+            }
+        }
+        List<File> clusterFolders = new ArrayList<File>();
+        if (clusters != null) {
+            for (String cluster : clusters) {
+                clusterFolders.add(new File(cluster));
+            }
+        }
+        File mavenExecutable = new File(mavenHome, launcher.isWindows() ? "bin\\mvn.cmd" : "bin/mvn");
+        if (!mavenExecutable.exists()) {
+            throw new MojoExecutionException("The Maven executable can't be found at '" + mavenExecutable.getAbsolutePath() + "'");
+        }
+
+        final CommandLineCallable gephi = CommandLineUtils.executeCommandLineAsCallable(cmdLine, null, out, out, 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> application = executor.submit(gephi);
+            new ModuleWatcher(modules, mavenExecutable, clusterFolders, launcher.getExecutable(), launcher.getInstanceArguments(gephiUserdir), getLog()).watch(application);
+            return application.get();
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     private String getDebugAdditionalArguments() {
@@ -15,13 +15,24 @@
  */
 package org.gephi.maven;
 
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import net.coobird.thumbnailator.Thumbnails;
 import net.coobird.thumbnailator.geometry.Positions;
 import net.coobird.thumbnailator.resizers.Resizers;
@@ -29,12 +40,48 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.gephi.maven.json.Image;
+import org.gephi.maven.json.ImageVariant;
 
+/**
+ * Utilities to publish plugin screenshots and their thumbnails.
+ */
 public class ScreenshotUtils {
 
-    private static final String THUMBNAIL_SUFFIX = "-thumbnail";
+    protected static final String THUMBNAIL_SUFFIX = "-thumbnail";
+
+    /**
+     * Subfolder of the size variants, apart from the source images.
+     */
+    protected static final String VARIANTS_FOLDER = "variants";
+
+    /**
+     * Size of the square the thumbnails are cropped to.
+     */
+    private static final int THUMBNAIL_SIZE = 140;
+
+    /**
+     * Size of the image the placeholder is computed from.
+     */
+    private static final int PLACEHOLDER_SAMPLE_SIZE = 32;
+
+    /**
+     * PNG file signature.
+     */
+    private static final byte[] PNG_SIGNATURE = new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private final Log log;
+    private final boolean optimizeImages;
+    private final int[] variantSizes;
+    private final ImageStore imageStore;
+
+    public ScreenshotUtils(boolean optimizeImages, int[] variantSizes, ImageStore imageStore, Log log) {
+        this.optimizeImages = optimizeImages;
+        this.variantSizes = variantSizes != null ? variantSizes : new int[0];
+        this.imageStore = imageStore;
+        this.log = log;
+    }
 
-    protected static List<Image> copyScreenshots(MavenProject mavenProject, File outputFolder, String urlPrefix, Log log, boolean dryRun) throws MojoExecutionException {
+    protected List<Image> copyScreenshots(MavenProject mavenProject, File outputFolder, String urlPrefix, boolean dryRun) throws MojoExecutionException {
         File folder = new File(mavenProject.getBasedir(), "src/img");
         if (folder.exists()) {
             log.debug("Folder '" + folder.getAbsolutePath() + "' exists");
@@ -71,43 +118,91 @@ public class ScreenshotUtils {
                 }
 
                 if(!dryRun) {
-                    // Read original file and copy to dest folder
-                    String fileName = file.getName().substring(0, file.getName().lastIndexOf(".")) + ".png";
+                    String baseName = file.getName().substring(0, file.getName().lastIndexOf("."));
+                    String fileName = baseName + ".png";
                     File imageDestFile = new File(outputFolder, fileName);
+
+                    // Decode the original once, all derived images are created
+                    // from it. PNGs are copied as-is and decoded later, only
+                    // as much as the derived images need
+                    int[] pngSize = readPngSize(file);
+                    BufferedImage source = null;
+                    if (pngSize == null) {
+                        try {
+                            source = Thumbnails.of(file).scale(1.0).asBufferedImage();
+                        } catch (IOException ex) {
+                            log.error("Can't read image file '" + file.getAbsolutePath() + "'", ex);
+                        }
+                    }
+
+                    // Copy to dest folder
+                    boolean written = false;
                     try {
-                        Thumbnails.of(file).
-                            outputFormat("png").
-                            outputQuality(0.90).
-                            resizer(Resizers.NULL).
-                            scale(1.0).
-                            toFile(imageDestFile);
+                        if (pngSize != null) {
+                            // Already a valid PNG, copy bytes as-is
+                            Files.copy(file.toPath(), imageDestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                            log.debug("Copied PNG image '" + file.getAbsolutePath() + "' without conversion");
+                            optimize(imageDestFile);
+                            written = true;
+                        } else if (source != null) {
+                            Thumbnails.of(source).
+                                outputFormat("png").
+                                outputQuality(0.90).
+                                resizer(Resizers.NULL).
+                                scale(1.0).
+                                toFile(imageDestFile);
+                            optimize(imageDestFile);
+                            written = true;
+                        }
                     } catch (IOException ex) {
                         log.error("Can't copy image file from '" + file.getAbsolutePath() + "' to '" +
                             imageDestFile.getAbsolutePath() + "'", ex);
                     }
 
+                    if (!written) {
+                        // A file from a previous build may remain, don't publish it
+                        log.error("Image file '" + file.getAbsolutePath() + "' is skipped as it couldn't be copied");
+                        continue;
+                    }
                     Image image = new Image();
-                    image.image = urlPrefix + fileName;
+                    image.size = imageDestFile.length();
+                    image.image = publish(imageDestFile, urlPrefix + fileName);
                     images.add(image);
 
-                    // Thumbnail path
-                    String thumFileName =
-                        file.getName().substring(0, file.getName().lastIndexOf(".")) + THUMBNAIL_SUFFIX + ".png";
-                    File thumbFile = new File(outputFolder, thumFileName);
-                    if (!thumbFile.exists()) {
-                        // Thumbnail creation
-                        try {
-                            Thumbnails.of(file)
-                                .outputFormat("png")
-                                .outputQuality(0.90)
-                                .size(140, 140)
-                                .crop(Positions.CENTER)
-                                .toFile(thumbFile);
-                            log.debug("Created thumbnail in file '" + thumbFile.getAbsolutePath() + "'");
-                            image.thumbnail = urlPrefix + thumFileName;
-                        } catch (IOException ex) {
-                            log.error("Can't create thumbnail for image file '" + file.getAbsolutePath() + "'", ex);
+                    if (pngSize != null) {
+                        image.width = pngSize[0];
+                        image.height = pngSize[1];
+                        source = decodePng(file, hasVariants(image.width, image.height) ? 1
+                                : Math.max(1, Math.min(image.width, image.height) / (2 * THUMBNAIL_SIZE)));
+                    } else if (source != null) {
+                        image.width = source.getWidth();
+                        image.height = source.getHeight();
+                    }
+                    if (source != null) {
+                        image.placeholder = createPlaceholder(source);
+
+                        // Thumbnail path
+                        String thumFileName = baseName + THUMBNAIL_SUFFIX + ".png";
+                        File thumbFile = new File(outputFolder, thumFileName);
+                        if (!thumbFile.exists()) {
+                            // Thumbnail creation
+                            try {
+                                Thumbnails.of(source)
+                                    .outputFormat("png")
+                                    .outputQuality(0.90)
+                                    .size(THUMBNAIL_SIZE, THUMBNAIL_SIZE)
+                                    .crop(Positions.CENTER)
+                                    .toFile(thumbFile);
+                                optimize(thumbFile);
+                                log.debug("Created thumbnail in file '" + thumbFile.getAbsolutePath() + "'");
+                                image.thumbnail = publish(thumbFile, urlPrefix + thumFileName);
+                            } catch (IOException ex) {
+                                log.error("Can't create thumbnail for image file '" + file.getAbsolutePath() + "'", ex);
+                            }
                         }
+
+                        // Size variants
+                        image.variants = createVariants(source, outputFolder, baseName, urlPrefix);
                     }
                 }
 
@@ -119,4 +214,193 @@ public class ScreenshotUtils {
         }
         return null;
     }
+
+    /**
+     * Compute the BlurHash placeholder of the image. It uses 4 components
+     * along the longest side and 3 along the other.
+     *
+     * @param source decoded original image
+     * @return placeholder or null if it can't be computed
+     */
+    private String createPlaceholder(BufferedImage source) {
+        try {
+            BufferedImage sample = Thumbnails.of(source).size(PLACEHOLDER_SAMPLE_SIZE, PLACEHOLDER_SAMPLE_SIZE).asBufferedImage();
+            boolean landscape = source.getWidth() >= source.getHeight();
+            return BlurHash.encode(sample, landscape ? 4 : 3, landscape ? 3 : 4);
+        } catch (IOException ex) {
+            log.error("Can't compute the placeholder of image", ex);
+        }
+        return null;
+    }
+
+    /**
+     * Create resized copies of the image so that each fits in a square of one
+     * of the configured sizes. Sizes larger than the original are skipped as
+     * images are never upscaled. Variants are written in a <em>variants</em>
+     * subfolder so their names can't clash with source images.
+     *
+     * @param source decoded original image
+     * @param outputFolder output folder
+     * @param baseName image name without extension
+     * @param urlPrefix url prefix
+     * @return list of variants, or null if none has been created
+     */
+    private List<ImageVariant> createVariants(BufferedImage source, File outputFolder, String baseName, String urlPrefix) {
+        int[] sizes = variantSizes.clone();
+        Arrays.sort(sizes);
+        List<ImageVariant> variants = new ArrayList<ImageVariant>();
+        for (int size : sizes) {
+            if (size <= 0 || size >= Math.max(source.getWidth(), source.getHeight())) {
+                continue;
+            }
+            String variantFileName = baseName + "-" + size + ".png";
+            File variantFile = new File(outputFolder, VARIANTS_FOLDER + File.separator + variantFileName);
+            try {
+                BufferedImage resized = Thumbnails.of(source).size(size, size).asBufferedImage();
+                variantFile.getParentFile().mkdirs();
+                if (!ImageIO.write(resized, "png", variantFile) || !variantFile.exists()) {
+                    log.error("Can't write " + size + "px variant of image '" + baseName + "'");
+                    continue;
+                }
+                optimize(variantFile);
+
+                ImageVariant variant = new ImageVariant();
+                variant.width = resized.getWidth();
+                variant.height = resized.getHeight();
+                variant.size = variantFile.length();
+                variant.image = publish(variantFile, urlPrefix + VARIANTS_FOLDER + "/" + variantFileName);
+                variants.add(variant);
+                log.debug("Created " + variant.width + "x" + variant.height + " variant in file '" + variantFile.getAbsolutePath() + "'");
+            } catch (IOException ex) {
+                log.error("Can't create " + size + "px variant of image '" + baseName + "'", ex);
+            }
+        }
+        return variants.isEmpty() ? null : variants;
+    }
+
+    /**
+     * Returns the width and height of a PNG file, read from its
+     * <em>IHDR</em> header. Such files are published as-is, without being
+     * decoded and re-encoded. Pixels aren't decoded.
+     *
+     * @param file image file
+     * @return width and height, or null if the file isn't a valid PNG
+     */
+    protected int[] readPngSize(File file) {
+        if (!file.getName().toLowerCase().endsWith(".png")) {
+            return null;
+        }
+        try {
+            // Signature, then the IHDR chunk length, type, width and height
+            byte[] header = new byte[PNG_SIGNATURE.length + 16];
+            DataInputStream is = new DataInputStream(Files.newInputStream(file.toPath()));
+            try {
+                is.readFully(header);
+            } finally {
+                is.close();
+            }
+            if (!Arrays.equals(Arrays.copyOf(header, PNG_SIGNATURE.length), PNG_SIGNATURE)) {
+                log.debug("Image file '" + file.getAbsolutePath() + "' has a PNG extension but not a PNG signature");
+                return null;
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(header, PNG_SIGNATURE.length, 16);
+            int length = chunk.getInt();
+            byte[] type = new byte[4];
+            chunk.get(type);
+            int width = chunk.getInt();
+            int height = chunk.getInt();
+            if (length != 13 || !new String(type, StandardCharsets.US_ASCII).equals("IHDR") || width <= 0 || height <= 0) {
+                log.debug("Image file '" + file.getAbsolutePath() + "' doesn't start with a valid PNG header");
+                return null;
+            }
+            return new int[]{width, height};
+        } catch (IOException ex) {
+            log.debug("Can't read PNG header of image file '" + file.getAbsolutePath() + "'", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the image is larger than one of the variant sizes.
+     */
+    private boolean hasVariants(int width, int height) {
+        for (int size : variantSizes) {
+            if (size > 0 && size < Math.max(width, height)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decode a PNG file, keeping one pixel out of <code>subsampling</code>
+     * in each direction so large images that are only used for the
+     * thumbnail and placeholder aren't fully decoded.
+     *
+     * @param file PNG file
+     * @param subsampling subsampling factor, 1 to decode all pixels
+     * @return image or null if it can't be decoded
+     */
+    private BufferedImage decodePng(File file, int subsampling) {
+        try {
+            ImageInputStream iis = ImageIO.createImageInputStream(file);
+            if (iis == null) {
+                return null;
+            }
+            try {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+                if (!readers.hasNext()) {
+                    return null;
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(iis, true, true);
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    return reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            } finally {
+                iis.close();
+            }
+        } catch (IOException ex) {
+            log.error("Can't read image file '" + file.getAbsolutePath() + "'", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the url of a written image. When content-addressed storage is
+     * enabled the file is moved into the store first.
+     *
+     * @param file image file in the plugin output folder
+     * @param url url of the file in the plugin output folder
+     * @return image url
+     */
+    private String publish(File file, String url) {
+        if (imageStore != null && file.exists()) {
+            try {
+                return imageStore.store(file);
+            } catch (IOException ex) {
+                log.error("Can't move image file '" + file.getAbsolutePath() + "' to the content-addressed store", ex);
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Runs the lossless PNG optimizer on the given file, if enabled.
+     *
+     * @param file PNG file
+     * @throws IOException if an io error occurs
+     */
+    private void optimize(File file) throws IOException {
+        if (optimizeImages) {
+            long saved = PngOptimizer.optimize(file, log);
+            if (saved > 0) {
+                log.debug("Saved " + saved + " bytes on image file '" + file.getName() + "'");
+            }
+        }
+    }
 }
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.gephi.maven.json.ModuleSizes;
+
+/**
+ * Size budgets of the files distributed with a plugin.
+ * <p>
+ * Each budget is a maximum, disabled when zero or negative. Files that don't
+ * exist yet or are older than the sources, like the NBM before the module is
+ * packaged, are skipped.
+ */
+public class SizeBudgets {
+
+    private final long maxNbmSize;
+    private final long maxSuiteSize;
+    private final long maxBundledJarSize;
+    private final long maxScreenshotSize;
+    private final long maxScreenshotPixels;
+    private final long maxReadmeSize;
+    private final Log log;
+    private final List<ModuleSizes> sizes = Collections.synchronizedList(new ArrayList<ModuleSizes>());
+
+    public SizeBudgets(long maxNbmSize, long maxSuiteSize, long maxBundledJarSize, long maxScreenshotSize, long maxScreenshotPixels, long maxReadmeSize, Log log) {
+        this.maxNbmSize = maxNbmSize;
+        this.maxSuiteSize = maxSuiteSize;
+        this.maxBundledJarSize = maxBundledJarSize;
+        this.maxScreenshotSize = maxScreenshotSize;
+        this.maxScreenshotPixels = maxScreenshotPixels;
+        this.maxReadmeSize = maxReadmeSize;
+        this.log = log;
+    }
+
+    /**
+     * Measure the module's NBM, bundled jars, screenshots and README and
+     * return the budgets exceeded.
+     *
+     * @param module module
+     * @return list of messages, empty if all budgets are met
+     */
+    protected List<String> checkModule(MavenProject module) {
+        List<String> exceeded = new ArrayList<String>();
+        ModuleSizes moduleSizes = new ModuleSizes();
+        moduleSizes.module = module.getArtifactId();
+        StringBuilder summary = new StringBuilder();
+
+        File nbmFile = NbmUtils.getNbmFile(module);
+        if (NbmUtils.isCurrent(module, nbmFile)) {
+            moduleSizes.nbm = nbmFile.length();
+            summary.append("NBM ").append(NbmUtils.formatSize(nbmFile.length()));
+            checkBudget(exceeded, "The NBM of module '" + module.getName() + "'", nbmFile.length(), maxNbmSize);
+            try {
+                long bundledSize = 0;
+                Map<String, Long> jars = NbmUtils.getBundledJars(nbmFile);
+                for (Map.Entry<String, Long> jar : jars.entrySet()) {
+                    bundledSize += Math.max(0, jar.getValue());
+                    String name = jar.getKey().substring(jar.getKey().lastIndexOf('/') + 1);
+                    checkBudget(exceeded, "The library '" + name + "' bundled in module '" + module.getName() + "'", jar.getValue(), maxBundledJarSize);
+                }
+                moduleSizes.bundled_jars = bundledSize;
+                summary.append(", ").append(jars.size()).append(" bundled jars ").append(NbmUtils.formatSize(bundledSize));
+            } catch (IOException ex) {
+                log.warn("Can't read the NBM file '" + nbmFile.getAbsolutePath() + "'");
+                log.debug(ex);
+            }
+        } else {
+            log.debug("The NBM file '" + nbmFile.getAbsolutePath() + "' doesn't exist or is outdated, its size isn't checked");
+        }
+
+        File[] screenshots = getScreenshots(module);
+        if (screenshots.length > 0) {
+            long screenshotsSize = 0;
+            for (File screenshot : screenshots) {
+                screenshotsSize += screenshot.length();
+                checkBudget(exceeded, "The screenshot '" + screenshot.getName() + "' of module '" + module.getName() + "'", screenshot.length(), maxScreenshotSize);
+                if (maxScreenshotPixels > 0) {
+                    long pixels = getPixelCount(screenshot);
+                    if (pixels > maxScreenshotPixels) {
+                        exceeded.add("The screenshot '" + screenshot.getName() + "' of module '" + module.getName() + "' has " + pixels + " pixels, exceeding the budget of " + maxScreenshotPixels + " pixels");
+                    }
+                }
+            }
+            moduleSizes.screenshots = screenshotsSize;
+            appendSeparator(summary).append(screenshots.length).append(" screenshots ").append(NbmUtils.formatSize(screenshotsSize));
+        }
+
+        File readme = new File(module.getBasedir(), "README.md");
+        if (readme.exists()) {
+            moduleSizes.readme = readme.length();
+            appendSeparator(summary).append("README ").append(NbmUtils.formatSize(readme.length()));
+            checkBudget(exceeded, "The README.md of module '" + module.getName() + "'", readme.length(), maxReadmeSize);
+        }
+
+        if (summary.length() > 0) {
+            log.info("Sizes of module '" + module.getName() + "': " + summary);
+        }
+        sizes.add(moduleSizes);
+        return exceeded;
+    }
+
+    /**
+     * Measure the suite's ZIP, which stores the NBMs of all its modules
+     * uncompressed, and return the budget exceeded.
+     *
+     * @param topPlugin suite's top module
+     * @param modules all modules of the suite
+     * @return list of messages, empty if the budget is met
+     */
+    protected List<String> checkSuite(MavenProject topPlugin, List<MavenProject> modules) {
+        List<String> exceeded = new ArrayList<String>();
+        long suiteSize = 0;
+        for (MavenProject module : modules) {
+            File nbmFile = NbmUtils.getNbmFile(module);
+            if (!NbmUtils.isCurrent(module, nbmFile)) {
+                log.debug("The NBM file '" + nbmFile.getAbsolutePath() + "' doesn't exist or is outdated, the suite size isn't checked");
+                return exceeded;
+            }
+            suiteSize += nbmFile.length();
+        }
+        log.info("Size of suite '" + topPlugin.getName() + "': " + NbmUtils.formatSize(suiteSize));
+        checkBudget(exceeded, "The suite '" + topPlugin.getName() + "'", suiteSize, maxSuiteSize);
+        return exceeded;
+    }
+
+    /**
+     * Returns the sizes measured so far.
+     *
+     * @return list of module sizes
+     */
+    protected List<ModuleSizes> getSizes() {
+        synchronized (sizes) {
+            return new ArrayList<ModuleSizes>(sizes);
+        }
+    }
+
+    private void checkBudget(List<String> exceeded, String what, long size, long budget) {
+        if (budget > 0 && size > budget) {
+            exceeded.add(what + " is " + NbmUtils.formatSize(size) + ", exceeding the budget of " + NbmUtils.formatSize(budget));
+        }
+    }
+
+    private File[] getScreenshots(MavenProject module) {
+        File folder = new File(module.getBasedir(), "src/img");
+        File[] files = folder.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return !name.startsWith(".")
+                        && (name.endsWith(".png") || name.endsWith(".jpg")
+                        || name.endsWith(".jpeg") || name.endsWith(".gif"))
+                        && !name.contains(ScreenshotUtils.THUMBNAIL_SUFFIX);
+            }
+        });
+        return files != null ? files : new File[0];
+    }
+
+    /**
+     * Returns the number of pixels of the image, reading only its header.
+     */
+    private long getPixelCount(File file) {
+        try {
+            ImageInputStream stream = ImageIO.createImageInputStream(file);
+            if (stream == null) {
+                return 0;
+            }
+            try {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+                if (readers.hasNext()) {
+                    ImageReader reader = readers.next();
+                    try {
+                        reader.setInput(stream);
+                        return (long) reader.getWidth(0) * reader.getHeight(0);
+                    } finally {
+                        reader.dispose();
+                    }
+                }
+            } finally {
+                stream.close();
+            }
+        } catch (IOException ex) {
+            log.debug("Can't read the dimensions of '" + file.getAbsolutePath() + "'");
+            log.debug(ex);
+        }
+        return 0;
+    }
+
+    private static StringBuilder appendSeparator(StringBuilder builder) {
+        return builder.length() > 0 ? builder.append(", ") : builder;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+import org.gephi.maven.json.SmokeTestResult;
+
+/**
+ * Load the plug-ins in several Gephi instances running in parallel and check
+ * that their modules enable without errors.
+ */
+@Mojo(name = "smoke-test", aggregator = true, defaultPhase = LifecyclePhase.NONE)
+public class SmokeTest extends AbstractMojo {
+
+    /**
+     * Output directory where the the Gephi application is created.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi")
+    private File gephiDirectory;
+
+    /**
+     * Branding token.
+     */
+    @Parameter(required = true, defaultValue = "gephi")
+    private String brandingToken;
+
+    /**
+     * List of plugin clusters.
+     */
+    @Parameter
+    private List<String> clusters;
+
+    /**
+     * If the executed project is a reactor project, this will contains the full
+     * list of projects in the reactor.
+     */
+    @Parameter(required = true, readonly = true, property = "reactorProjects")
+    private List<MavenProject> reactorProjects;
+
+    /**
+     * Folder of the user directories of the instances.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/smoke-test")
+    private File smokeTestDirectory;
+
+    /**
+     * Number of instances running in parallel. Defaults to half the number of
+     * available processors.
+     */
+    @Parameter(defaultValue = "0", property = "gephi.smokeTest.instances")
+    private int instances;
+
+    /**
+     * Number of plug-ins loaded per instance, 1 to load each plug-in alone or
+     * 0 to load all plug-ins in a single instance.
+     */
+    @Parameter(defaultValue = "1", property = "gephi.smokeTest.groupSize")
+    private int groupSize;
+
+    /**
+     * Regular expression matching the console line printed when the startup
+     * is complete.
+     */
+    @Parameter(defaultValue = "(?i)window system shown", property = "gephi.smokeTest.marker")
+    private String startupMarker;
+
+    /**
+     * Regular expression matching the console lines reporting an error.
+     */
+    @Parameter(defaultValue = "^SEVERE\\b|could not install some modules|^\\s*(Caused by: )?[\\w.$]+(Exception|Error)(: .*)?$", property = "gephi.smokeTest.errorPattern")
+    private String errorPattern;
+
+    /**
+     * Maximum duration in seconds of an instance.
+     */
+    @Parameter(defaultValue = "300", property = "gephi.smokeTest.timeout")
+    private int timeout;
+
+    /**
+     * Fail the build if a plug-in doesn't load.
+     */
+    @Parameter(defaultValue = "true", property = "gephi.smokeTest.fail")
+    private boolean failOnError;
+
+    /**
+     * JSON report of the results.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi-smoke-test.json", property = "gephi.smokeTest.report")
+    private File reportFile;
+
+    private static final int MAX_ERRORS = 20;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        Pattern marker;
+        final Pattern errors;
+        try {
+            marker = Pattern.compile(startupMarker);
+            errors = Pattern.compile(errorPattern);
+        } catch (PatternSyntaxException ex) {
+            throw new MojoExecutionException("Invalid regular expression '" + ex.getPattern() + "'", ex);
+        }
+
+        final List<MavenProject> modules = new ArrayList<MavenProject>();
+        for (MavenProject proj : reactorProjects) {
+            if (proj.getPackaging().equals("nbm")) {
+                modules.add(proj);
+            }
+        }
+        if (modules.isEmpty()) {
+            throw new MojoExecutionException("No 'nbm' module found in the reactor");
+        }
+        final List<String> codeNameBases = UserdirUtils.getCodeNameBases(modules);
+
+        final GephiLauncher launcher = new GephiLauncher(gephiDirectory, brandingToken);
+        try {
+            launcher.setExtraClusters(clusters);
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed configuring Gephi", ex);
+        }
+        final StartupTimer timer = new StartupTimer(marker, timeout * 1000L, getLog());
+
+        Map<String, List<String>> groups = getGroups(modules, codeNameBases);
+        int threads = instances > 0 ? instances : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        getLog().info("Loading " + groups.size() + " plugin group(s) in " + Math.min(threads, groups.size()) + " parallel Gephi instance(s)");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<SmokeTestResult> results = new ArrayList<SmokeTestResult>();
+        try {
+            List<Future<SmokeTestResult>> futures = new ArrayList<Future<SmokeTestResult>>();
+            for (final Map.Entry<String, List<String>> group : groups.entrySet()) {
+                futures.add(executor.submit(new Callable<SmokeTestResult>() {
+                    @Override
+                    public SmokeTestResult call() throws Exception {
+                        return load(group.getKey(), group.getValue(), codeNameBases, launcher, timer, errors);
+                    }
+                }));
+            }
+            for (Future<SmokeTestResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for the Gephi instances", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof MojoExecutionException) {
+                throw (MojoExecutionException) ex.getCause();
+            }
+            throw new MojoExecutionException("Failed executing Gephi", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int failures = 0;
+        for (SmokeTestResult result : results) {
+            if (result.passed) {
+                getLog().info(String.format("  PASS  %-30s %6d ms", result.plugin, result.load_ms));
+            } else {
+                failures++;
+                getLog().error(String.format("  FAIL  %-30s %6s", result.plugin, result.load_ms != null ? result.load_ms + " ms" : "-"));
+                for (String error : result.errors) {
+                    getLog().error("        " + error);
+                }
+            }
+        }
+        writeReport(results);
+
+        if (failures > 0) {
+            String message = failures + " of " + results.size() + " plugin group(s) failed to load, see '" + reportFile.getAbsolutePath() + "'";
+            if (failOnError) {
+                throw new MojoExecutionException(message);
+            }
+            getLog().warn(message);
+        }
+    }
+
+    private Map<String, List<String>> getGroups(List<MavenProject> modules, List<String> codeNameBases) {
+        Map<String, List<String>> groups = new LinkedHashMap<String, List<String>>();
+        if (groupSize <= 0) {
+            groups.put("all", codeNameBases);
+            return groups;
+        }
+        // A plugin is a top-level module with its module dependencies
+        Map<MavenProject, List<MavenProject>> tree = ModuleUtils.getModulesTree(modules, getLog());
+        List<String> current = null;
+        String name = null;
+        int count = 0;
+        for (Map.Entry<MavenProject, List<MavenProject>> entry : tree.entrySet()) {
+            if (count % groupSize == 0) {
+                current = new ArrayList<String>();
+                name = groupSize == 1 ? entry.getKey().getArtifactId() : "group-" + (count / groupSize + 1);
+                groups.put(name, current);
+            }
+            for (MavenProject module : entry.getValue()) {
+                String codeNameBase = codeNameBases.get(modules.indexOf(module));
+                if (!current.contains(codeNameBase)) {
+                    current.add(codeNameBase);
+                }
+            }
+            count++;
+        }
+        return groups;
+    }
+
+    private SmokeTestResult load(String name, List<String> enabled, List<String> codeNameBases, GephiLauncher launcher, StartupTimer timer, final Pattern errorPattern) throws MojoExecutionException {
+        // Each instance starts from a fresh userdir, like a first install
+        File userdir = new File(smokeTestDirectory, name);
+        try {
+            FileUtils.deleteDirectory(userdir);
+            userdir.mkdirs();
+            for (String codeNameBase : codeNameBases) {
+                UserdirUtils.setModuleEnabled(userdir, codeNameBase, enabled.contains(codeNameBase));
+            }
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed configuring the userdir '" + userdir.getAbsolutePath() + "'", ex);
+        }
+
+        final List<String> errors = new ArrayList<String>();
+        StreamConsumer lines = new StreamConsumer() {
+            @Override
+            public void consumeLine(String line) {
+                if (errorPattern.matcher(line).find()) {
+                    synchronized (errors) {
+                        if (errors.size() < MAX_ERRORS) {
+                            errors.add(line.trim());
+                        }
+                    }
+                }
+            }
+        };
+        getLog().debug("Loading '" + name + "': " + enabled);
+        List<String> args = Arrays.asList("-J-Dorg.netbeans.log.startup=print", "-J-Dnetbeans.close=true");
+        long time = timer.measure(launcher.createCommandline(userdir, args), lines);
+
+        SmokeTestResult result = new SmokeTestResult();
+        result.plugin = name;
+        result.modules = enabled;
+        synchronized (errors) {
+            result.errors = new ArrayList<String>(errors);
+        }
+        if (time < 0) {
+            result.errors.add(0, "The startup didn't complete within " + timeout + " seconds");
+        } else {
+            result.load_ms = time;
+        }
+        result.passed = result.errors.isEmpty();
+        return result;
+    }
+
+    private void writeReport(List<SmokeTestResult> results) throws MojoExecutionException {
+        if (reportFile.getParentFile() != null && reportFile.getParentFile().mkdirs()) {
+            getLog().debug("Folder '" + reportFile.getParentFile().getAbsolutePath() + "' created.");
+        }
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            FileWriter writer = new FileWriter(reportFile);
+            writer.append(gson.toJson(results));
+            writer.close();
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Error while writing the smoke test report '" + reportFile.getAbsolutePath() + "'", ex);
+        }
+        getLog().info("Smoke test report written to '" + reportFile.getAbsolutePath() + "'");
+    }
+}
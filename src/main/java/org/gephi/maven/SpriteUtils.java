@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.gephi.maven.json.Image;
+import org.gephi.maven.json.PluginMetadata;
+import org.gephi.maven.json.Sprite;
+
+/**
+ * Packs plugin thumbnails into sprite atlases, one or more per category.
+ */
+public class SpriteUtils {
+
+    private final Log log;
+    private final int maxThumbnailsPerAtlas;
+    private final boolean optimizeImages;
+    private final ImageStore imageStore;
+
+    public SpriteUtils(int maxThumbnailsPerAtlas, boolean optimizeImages, ImageStore imageStore, Log log) {
+        this.maxThumbnailsPerAtlas = Math.max(1, maxThumbnailsPerAtlas);
+        this.optimizeImages = optimizeImages;
+        this.imageStore = imageStore;
+        this.log = log;
+    }
+
+    /**
+     * Create the sprite atlases in the <em>imgs/sprites</em> folder and set the
+     * <code>thumbnail_sprite</code> field of each plugin.
+     * <p>
+     * The first thumbnail of each plugin is used. Thumbnails of plugins that
+     * haven't been rebuilt are downloaded from <em>metadataUrl</em>.
+     *
+     * @param plugins plugins metadata
+     * @param outputDirectory site output directory
+     * @param metadataUrl metadata url, used to download missing thumbnails
+     * @throws MojoExecutionException if an atlas can't be written
+     */
+    protected void createSprites(List<PluginMetadata> plugins, File outputDirectory, String metadataUrl) throws MojoExecutionException {
+        // Group plugins and their thumbnail by category
+        Map<String, List<PluginMetadata>> categories = new LinkedHashMap<String, List<PluginMetadata>>();
+        for (String category : ManifestUtils.CATEGORIES) {
+            categories.put(category, new ArrayList<PluginMetadata>());
+        }
+        Map<PluginMetadata, BufferedImage> thumbnails = new LinkedHashMap<PluginMetadata, BufferedImage>();
+        for (PluginMetadata pm : plugins) {
+            pm.thumbnail_sprite = null;
+            String thumbnail = getFirstThumbnail(pm);
+            if (thumbnail == null) {
+                continue;
+            }
+            BufferedImage image = readThumbnail(new File(outputDirectory, thumbnail.replace('/', File.separatorChar)), metadataUrl + thumbnail);
+            if (image == null) {
+                continue;
+            }
+            String category = pm.category != null && categories.containsKey(pm.category) ? pm.category : "Other Category";
+            categories.get(category).add(pm);
+            thumbnails.put(pm, image);
+        }
+
+        File spritesFolder = new File(outputDirectory, "imgs" + File.separator + "sprites");
+        if (spritesFolder.mkdirs()) {
+            log.debug("Folder '" + spritesFolder.getAbsolutePath() + "' created.");
+        }
+
+        for (Map.Entry<String, List<PluginMetadata>> entry : categories.entrySet()) {
+            List<PluginMetadata> categoryPlugins = entry.getValue();
+            Collections.sort(categoryPlugins, new Comparator<PluginMetadata>() {
+                @Override
+                public int compare(PluginMetadata p1, PluginMetadata p2) {
+                    return p1.id.compareTo(p2.id);
+                }
+            });
+            String slug = entry.getKey().toLowerCase().replaceAll("[^a-z0-9]+", "-");
+            for (int start = 0, index = 0; start < categoryPlugins.size(); start += maxThumbnailsPerAtlas, index++) {
+                List<PluginMetadata> atlasPlugins = categoryPlugins.subList(start, Math.min(categoryPlugins.size(), start + maxThumbnailsPerAtlas));
+                String fileName = slug + "-" + index + ".png";
+                writeAtlas(atlasPlugins, thumbnails, new File(spritesFolder, fileName), "imgs/sprites/" + fileName);
+            }
+        }
+    }
+
+    private void writeAtlas(List<PluginMetadata> atlasPlugins, Map<PluginMetadata, BufferedImage> thumbnails, File file, String path) throws MojoExecutionException {
+        // All cells have the size of the largest thumbnail
+        int cellWidth = 0, cellHeight = 0;
+        for (PluginMetadata pm : atlasPlugins) {
+            cellWidth = Math.max(cellWidth, thumbnails.get(pm).getWidth());
+            cellHeight = Math.max(cellHeight, thumbnails.get(pm).getHeight());
+        }
+        int columns = (int) Math.ceil(Math.sqrt(atlasPlugins.size()));
+        int rows = (atlasPlugins.size() + columns - 1) / columns;
+
+        BufferedImage atlas = new BufferedImage(columns * cellWidth, rows * cellHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = atlas.createGraphics();
+        for (int i = 0; i < atlasPlugins.size(); i++) {
+            PluginMetadata pm = atlasPlugins.get(i);
+            BufferedImage thumbnail = thumbnails.get(pm);
+            Sprite sprite = new Sprite();
+            sprite.image = path;
+            sprite.x = (i % columns) * cellWidth;
+            sprite.y = (i / columns) * cellHeight;
+            sprite.width = thumbnail.getWidth();
+            sprite.height = thumbnail.getHeight();
+            g.drawImage(thumbnail, sprite.x, sprite.y, null);
+            pm.thumbnail_sprite = sprite;
+        }
+        g.dispose();
+
+        try {
+            ImageIO.write(atlas, "png", file);
+            if (optimizeImages) {
+                PngOptimizer.optimize(file, log);
+            }
+            if (imageStore != null) {
+                path = imageStore.store(file);
+                for (PluginMetadata pm : atlasPlugins) {
+                    pm.thumbnail_sprite.image = path;
+                }
+            }
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Error while writing sprite atlas '" + file.getAbsolutePath() + "'", ex);
+        }
+        log.info("Created sprite atlas '" + path + "' with " + atlasPlugins.size() + " thumbnails");
+    }
+
+    private String getFirstThumbnail(PluginMetadata pm) {
+        if (pm.images != null) {
+            for (Image image : pm.images) {
+                if (image.thumbnail != null) {
+                    return image.thumbnail;
+                }
+            }
+        }
+        return null;
+    }
+
+    private BufferedImage readThumbnail(File file, String url) {
+        try {
+            if (!file.exists()) {
+                download(url, file);
+            }
+            return ImageIO.read(file);
+        } catch (IOException ex) {
+            log.warn("Can't read thumbnail '" + file.getAbsolutePath() + "', it won't be part of a sprite atlas");
+            log.debug(ex);
+        }
+        return null;
+    }
+
+    private void download(String url, File destinationFile) throws IOException {
+        destinationFile.getParentFile().mkdirs();
+        URLConnection connection = new URL(url).openConnection();
+        connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/537.11 (KHTML, like Gecko) Chrome/23.0.1271.95 Safari/537.11");
+        connection.connect();
+        InputStream stream = connection.getInputStream();
+        ReadableByteChannel rbc = Channels.newChannel(stream);
+        FileOutputStream fos = new FileOutputStream(destinationFile);
+        try {
+            fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
+        } catch (IOException ex) {
+            fos.close();
+            destinationFile.delete();
+            throw ex;
+        } finally {
+            fos.close();
+            rbc.close();
+            stream.close();
+        }
+        log.debug("Downloaded thumbnail from '" + url + "' to '" + destinationFile.getAbsolutePath() + "'");
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gephi.maven.json.ModuleStartup;
+
+/**
+ * Attributes the startup time of the application to modules, from a log
+ * whose lines are prefixed by the elapsed time since the launch.
+ * <p>
+ * Lines ending an action started earlier, e.g. <em>ModuleInstall for org.foo
+ * started</em> then <em>finished</em>, count for the time between both.
+ * Other lines mentioning a module count for the time until the next line.
+ * The time is classified as installer, layers or enable time from the line's
+ * keywords.
+ */
+public class StartupAttribution {
+
+    private static final Pattern TIMESTAMPED_LINE = Pattern.compile("^\\s*(\\d+) ms  (.*)$");
+    private static final Pattern ACTION = Pattern.compile("^(.*?)\\s+(started|finished)\\b.*$");
+
+    private final List<String> codeNameBases;
+    private final Map<String, ModuleStartup> results = new LinkedHashMap<String, ModuleStartup>();
+    private final Map<String, Long> startedActions = new HashMap<String, Long>();
+    private ModuleStartup current;
+    private String currentPhase;
+    private long currentTime;
+
+    /**
+     * @param codeNameBases code name bases of the modules to report
+     */
+    public StartupAttribution(List<String> codeNameBases) {
+        this.codeNameBases = new ArrayList<String>(codeNameBases);
+        // Longest first so 'org.foo.bar' wins over 'org.foo'
+        Collections.sort(this.codeNameBases, new Comparator<String>() {
+            @Override
+            public int compare(String s1, String s2) {
+                return s2.length() - s1.length();
+            }
+        });
+    }
+
+    /**
+     * Format a line of the timestamped log.
+     *
+     * @param elapsedMs time since the launch
+     * @param line console line
+     * @return log line
+     */
+    protected static String formatLine(long elapsedMs, String line) {
+        return String.format("%8d ms  %s", elapsedMs, line);
+    }
+
+    /**
+     * Parse a timestamped log written with {@link #formatLine(long, String)}.
+     *
+     * @param log log file
+     * @throws IOException if the file can't be read
+     */
+    protected void parse(File log) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(log), StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = TIMESTAMPED_LINE.matcher(line);
+                if (matcher.matches()) {
+                    add(Long.parseLong(matcher.group(1)), matcher.group(2));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Add a log message.
+     *
+     * @param timeMs time of the message since the launch
+     * @param message message
+     */
+    protected void add(long timeMs, String message) {
+        if (current != null) {
+            addTime(current, currentPhase, timeMs - currentTime);
+            current = null;
+        }
+        String module = findModule(message);
+        if (module == null) {
+            return;
+        }
+        Matcher action = ACTION.matcher(message);
+        if (action.matches()) {
+            String key = action.group(1).trim();
+            if (action.group(2).equals("started")) {
+                startedActions.put(key, timeMs);
+            } else {
+                Long start = startedActions.remove(key);
+                if (start != null) {
+                    addTime(getResult(module), getPhase(message), timeMs - start);
+                }
+            }
+            return;
+        }
+        current = getResult(module);
+        currentPhase = getPhase(message);
+        currentTime = timeMs;
+    }
+
+    /**
+     * Returns the modules found in the log, sorted by decreasing total time.
+     *
+     * @return module startup times
+     */
+    protected List<ModuleStartup> getResults() {
+        List<ModuleStartup> list = new ArrayList<ModuleStartup>(results.values());
+        Collections.sort(list, new Comparator<ModuleStartup>() {
+            @Override
+            public int compare(ModuleStartup m1, ModuleStartup m2) {
+                return Long.compare(m2.total_ms, m1.total_ms);
+            }
+        });
+        return list;
+    }
+
+    private String findModule(String message) {
+        for (String codeNameBase : codeNameBases) {
+            if (message.contains(codeNameBase) || message.contains(codeNameBase.replace('.', '-'))) {
+                return codeNameBase;
+            }
+        }
+        return null;
+    }
+
+    private ModuleStartup getResult(String module) {
+        ModuleStartup result = results.get(module);
+        if (result == null) {
+            result = new ModuleStartup();
+            result.module = module;
+            results.put(module, result);
+        }
+        return result;
+    }
+
+    private static String getPhase(String message) {
+        String lower = message.toLowerCase(Locale.ENGLISH);
+        if (lower.contains("install") || lower.contains("restor") || lower.contains("validate")) {
+            return "installer";
+        } else if (lower.contains("layer")) {
+            return "layers";
+        }
+        return "enable";
+    }
+
+    private static void addTime(ModuleStartup result, String phase, long time) {
+        if (time <= 0) {
+            return;
+        }
+        if (phase.equals("installer")) {
+            result.installer_ms += time;
+        } else if (phase.equals("layers")) {
+            result.layers_ms += time;
+        } else {
+            result.enable_ms += time;
+        }
+        result.total_ms += time;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.tools.ant.taskdefs.Manifest;
+import org.codehaus.plexus.util.IOUtil;
+import org.gephi.maven.json.StartupCost;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Flags module patterns that slow down Gephi's startup and estimates their
+ * cost.
+ * <p>
+ * The costs are rough heuristics, meant to compare modules and spot
+ * regressions rather than predict actual timings.
+ */
+public class StartupLint {
+
+    private static final int INSTALL_COST_MS = 25;
+    private static final int EAGER_COST_MS = 15;
+    private static final int LAYER_INSTANCE_COST_MS = 1;
+    private static final int STATIC_INITIALIZER_COST_MS_PER_KB = 2;
+    private static final int BUNDLED_JAR_COST_MS_PER_MB = 2;
+
+    private static final int HEAVY_LAYER_INSTANCES = 20;
+    private static final int LARGE_STATIC_INITIALIZER = 1024;
+    private static final long LARGE_BUNDLED_JAR = 5 * 1024 * 1024;
+
+    private static final Pattern EAGER = Pattern.compile("<param\\s+name=\"eager\"\\s*>\\s*true\\s*</param>");
+
+    private final Log log;
+
+    public StartupLint(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Analyze the module's manifest, and its jar and NBM if they have been
+     * built from the current sources.
+     *
+     * @param module module
+     * @param sourceManifest module's source manifest
+     * @return estimated cost and findings
+     */
+    protected StartupCost analyze(MavenProject module, Manifest sourceManifest) {
+        StartupCost cost = new StartupCost();
+        cost.module = module.getArtifactId();
+        cost.findings = new ArrayList<String>();
+
+        File jarFile = NbmUtils.getModuleJar(module);
+        Attributes builtAttributes = null;
+        JarFile jar = null;
+        try {
+            if (NbmUtils.isCurrent(module, jarFile)) {
+                jar = new JarFile(jarFile);
+                builtAttributes = jar.getManifest() != null ? jar.getManifest().getMainAttributes() : null;
+            } else {
+                log.debug("The module jar '" + jarFile.getAbsolutePath() + "' doesn't exist or is outdated, only the manifest is analyzed");
+            }
+
+            String install = getAttribute(sourceManifest, builtAttributes, "OpenIDE-Module-Install");
+            if (install != null) {
+                addFinding(cost, INSTALL_COST_MS, "The module installer '" + install + "' runs at every startup, consider lazy registrations (e.g. @OnStart, @ServiceProvider) instead");
+            }
+
+            String codeNameBase = getAttribute(sourceManifest, builtAttributes, "OpenIDE-Module");
+            if (codeNameBase != null) {
+                analyzeModuleConfig(cost, module, codeNameBase.split("/")[0].trim());
+            }
+
+            if (jar != null) {
+                String layer = getAttribute(sourceManifest, builtAttributes, "OpenIDE-Module-Layer");
+                if (layer != null) {
+                    analyzeLayer(cost, jar, layer);
+                }
+                analyzeStaticInitializers(cost, jar);
+            }
+        } catch (IOException ex) {
+            log.warn("Can't analyze the module jar '" + jarFile.getAbsolutePath() + "'");
+            log.debug(ex);
+        } finally {
+            if (jar != null) {
+                try {
+                    jar.close();
+                } catch (IOException ex) {
+                }
+            }
+        }
+
+        analyzeBundledJars(cost, module);
+        return cost;
+    }
+
+    private void analyzeModuleConfig(StartupCost cost, MavenProject module, String codeNameBase) {
+        File nbmFile = NbmUtils.getNbmFile(module);
+        if (!NbmUtils.isCurrent(module, nbmFile)) {
+            return;
+        }
+        try {
+            ZipFile nbm = new ZipFile(nbmFile);
+            try {
+                ZipEntry entry = nbm.getEntry(NbmUtils.getModuleConfigEntry(codeNameBase));
+                if (entry == null) {
+                    return;
+                }
+                InputStream is = nbm.getInputStream(entry);
+                String config;
+                try {
+                    config = new String(IOUtil.toByteArray(is), StandardCharsets.UTF_8);
+                } finally {
+                    is.close();
+                }
+                // Regular modules aren't reported, plugins must be regular to
+                // be shown in the plugin manager
+                if (EAGER.matcher(config).find()) {
+                    addFinding(cost, EAGER_COST_MS, "The module is eager and is loaded at startup as soon as its dependencies are enabled");
+                }
+            } finally {
+                nbm.close();
+            }
+        } catch (IOException ex) {
+            log.debug("Can't read the module configuration in '" + nbmFile.getAbsolutePath() + "'");
+            log.debug(ex);
+        }
+    }
+
+    private void analyzeLayer(StartupCost cost, JarFile jar, String layer) {
+        JarEntry entry = jar.getJarEntry(layer);
+        if (entry == null) {
+            return;
+        }
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setValidating(false);
+            // Layers declare a DTD hosted online, don't fetch it
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            InputStream is = jar.getInputStream(entry);
+            Document document;
+            try {
+                document = builder.parse(is);
+            } finally {
+                is.close();
+            }
+            int instances = 0;
+            NodeList files = document.getElementsByTagName("file");
+            for (int i = 0; i < files.getLength(); i++) {
+                if (((Element) files.item(i)).getAttribute("name").endsWith(".instance")) {
+                    instances++;
+                }
+            }
+            if (instances >= HEAVY_LAYER_INSTANCES) {
+                addFinding(cost, instances * LAYER_INSTANCE_COST_MS, "The layer '" + layer + "' registers " + instances + " instances");
+            }
+        } catch (ParserConfigurationException ex) {
+            log.debug(ex);
+        } catch (SAXException ex) {
+            log.warn("Can't parse the layer '" + layer + "' in '" + jar.getName() + "'");
+            log.debug(ex);
+        } catch (IOException ex) {
+            log.debug(ex);
+        }
+    }
+
+    private void analyzeStaticInitializers(StartupCost cost, JarFile jar) throws IOException {
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (!entry.getName().endsWith(".class")) {
+                continue;
+            }
+            InputStream is = jar.getInputStream(entry);
+            int size;
+            try {
+                size = ClassFileUtils.getStaticInitializerSize(is);
+            } catch (IOException ex) {
+                log.debug("Can't read class '" + entry.getName() + "'");
+                continue;
+            } finally {
+                is.close();
+            }
+            if (size >= LARGE_STATIC_INITIALIZER) {
+                String className = entry.getName().substring(0, entry.getName().length() - 6).replace('/', '.');
+                addFinding(cost, size / 1024 * STATIC_INITIALIZER_COST_MS_PER_KB, "The class '" + className + "' has a large static initializer (" + size + " bytes of bytecode)");
+            }
+        }
+    }
+
+    private void analyzeBundledJars(StartupCost cost, MavenProject module) {
+        File nbmFile = NbmUtils.getNbmFile(module);
+        if (!NbmUtils.isCurrent(module, nbmFile)) {
+            return;
+        }
+        try {
+            for (Map.Entry<String, Long> jar : NbmUtils.getBundledJars(nbmFile).entrySet()) {
+                if (jar.getValue() >= LARGE_BUNDLED_JAR) {
+                    String name = jar.getKey().substring(jar.getKey().lastIndexOf('/') + 1);
+                    int megabytes = (int) (jar.getValue() / (1024 * 1024));
+                    addFinding(cost, megabytes * BUNDLED_JAR_COST_MS_PER_MB, "The bundled library '" + name + "' is " + NbmUtils.formatSize(jar.getValue()) + " and is indexed at startup");
+                }
+            }
+        } catch (IOException ex) {
+            log.debug(ex);
+        }
+    }
+
+    private static String getAttribute(Manifest sourceManifest, Attributes builtAttributes, String name) {
+        if (builtAttributes != null && builtAttributes.getValue(name) != null) {
+            return builtAttributes.getValue(name);
+        }
+        if (sourceManifest != null) {
+            return sourceManifest.getMainSection().getAttributeValue(name);
+        }
+        return null;
+    }
+
+    private static void addFinding(StartupCost cost, int ms, String finding) {
+        cost.estimated_ms += ms;
+        cost.findings.add(finding + " (~" + ms + " ms)");
+    }
+}
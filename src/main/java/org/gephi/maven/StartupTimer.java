@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.Commandline;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+import org.codehaus.plexus.util.cli.StreamPumper;
+
+/**
+ * Measures the startup time of the application, from the launch to the first
+ * console line matching the startup marker.
+ * <p>
+ * The application should be launched with <em>-J-Dnetbeans.close=true</em>
+ * so it exits by itself once started. It's stopped with
+ * {@link Process#destroy()} otherwise.
+ */
+public class StartupTimer {
+
+    private final Pattern marker;
+    private final long timeoutMs;
+    private final Log log;
+
+    /**
+     * @param marker pattern of the console line marking the end of the
+     * startup
+     * @param timeoutMs maximum duration of a launch
+     * @param log log
+     */
+    public StartupTimer(Pattern marker, long timeoutMs, Log log) {
+        this.marker = marker;
+        this.timeoutMs = timeoutMs;
+        this.log = log;
+    }
+
+    /**
+     * Launch the application and return its startup time.
+     *
+     * @param cmdLine command line launching the application
+     * @return startup time in milliseconds, or -1 if the startup didn't
+     * complete
+     * @throws MojoExecutionException if the application can't be launched
+     */
+    protected long measure(Commandline cmdLine) throws MojoExecutionException {
+        return measure(cmdLine, null);
+    }
+
+    /**
+     * Launch the application and return its startup time.
+     *
+     * @param cmdLine command line launching the application
+     * @param lines consumer receiving the console lines, or null
+     * @return startup time in milliseconds, or -1 if the startup didn't
+     * complete
+     * @throws MojoExecutionException if the application can't be launched
+     */
+    protected long measure(Commandline cmdLine, final StreamConsumer lines) throws MojoExecutionException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final long[] markerTime = new long[]{-1};
+        StreamConsumer consumer = new StreamConsumer() {
+            @Override
+            public void consumeLine(String line) {
+                log.debug(line);
+                if (lines != null) {
+                    lines.consumeLine(line);
+                }
+                synchronized (markerTime) {
+                    if (markerTime[0] < 0 && marker.matcher(line).find()) {
+                        markerTime[0] = System.nanoTime();
+                        started.countDown();
+                    }
+                }
+            }
+        };
+
+        long start = System.nanoTime();
+        Process process;
+        try {
+            process = cmdLine.execute();
+        } catch (CommandLineException ex) {
+            throw new MojoExecutionException("Failed executing Gephi", ex);
+        }
+        StreamPumper out = new StreamPumper(process.getInputStream(), consumer);
+        StreamPumper err = new StreamPumper(process.getErrorStream(), consumer);
+        out.start();
+        err.start();
+
+        try {
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (!started.await(200, TimeUnit.MILLISECONDS) && process.isAlive() && System.nanoTime() < deadline) {
+            }
+            long exitTime = -1;
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            if (process.waitFor(remaining, TimeUnit.NANOSECONDS)) {
+                exitTime = System.nanoTime();
+            } else {
+                log.debug("Gephi didn't exit by itself, stopping it");
+                process.destroy();
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+            out.waitUntilDone();
+            err.waitUntilDone();
+
+            synchronized (markerTime) {
+                if (markerTime[0] >= 0) {
+                    return TimeUnit.NANOSECONDS.toMillis(markerTime[0] - start);
+                }
+            }
+            if (exitTime >= 0 && process.exitValue() == 0) {
+                log.warn("The startup marker '" + marker.pattern() + "' hasn't been found, the exit time is used instead");
+                return TimeUnit.NANOSECONDS.toMillis(exitTime - start);
+            }
+            return -1;
+        } catch (InterruptedException ex) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for Gephi", ex);
+        } finally {
+            out.close();
+            err.close();
+        }
+    }
+
+    /**
+     * Returns the percentile of the values, using the nearest-rank method.
+     *
+     * @param values values
+     * @param percentile percentile, between 0 and 100
+     * @return value at the percentile
+     */
+    protected static long percentile(List<Long> values, double percentile) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("No values");
+        }
+        List<Long> sorted = new ArrayList<Long>(values);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Warmed Gephi user directories, captured after a successful run and restored
+ * into empty user directories.
+ * <p>
+ * A warmed userdir contains the module and layer caches built at the first
+ * start, which Gephi would otherwise rebuild after every clean. Templates are
+ * keyed by the Gephi version and the set of clusters, as the caches depend on
+ * both. Gephi still checks the caches and rebuilds them if the cluster jars
+ * changed.
+ */
+public class UserdirTemplates {
+
+    /**
+     * Userdir files that shouldn't be part of a template.
+     */
+    private static final String[] EXCLUDED = new String[]{"lock", "var" + File.separator + "log"};
+
+    private final File templatesFolder;
+    private final Log log;
+
+    public UserdirTemplates(File templatesFolder, Log log) {
+        this.templatesFolder = templatesFolder;
+        this.log = log;
+    }
+
+    /**
+     * Returns the template key.
+     *
+     * @param gephiVersion Gephi version
+     * @param clusters cluster paths, in any order
+     * @return key
+     */
+    protected static String getKey(String gephiVersion, List<String> clusters) {
+        List<String> sorted = clusters != null ? new ArrayList<String>(clusters) : new ArrayList<String>();
+        Collections.sort(sorted);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String cluster : sorted) {
+                digest.update(new File(cluster).getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder builder = new StringBuilder();
+            builder.append(gephiVersion != null ? gephiVersion.replaceAll("[^A-Za-z0-9.-]", "_") : "unknown").append('-');
+            byte[] hash = digest.digest();
+            for (int i = 0; i < 6; i++) {
+                builder.append(String.format("%02x", hash[i]));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Returns true if a template exists for the key.
+     *
+     * @param key template key
+     * @return true if it exists
+     */
+    protected boolean exists(String key) {
+        return new File(templatesFolder, key).isDirectory();
+    }
+
+    /**
+     * Restore the template into the userdir, if the userdir is empty and a
+     * template exists.
+     *
+     * @param key template key
+     * @param userdir Gephi user directory
+     * @return true if restored
+     */
+    protected boolean restore(String key, File userdir) {
+        File template = new File(templatesFolder, key);
+        String[] content = userdir.list();
+        if (!template.isDirectory() || (content != null && content.length > 0)) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            copy(template.toPath(), userdir.toPath());
+        } catch (IOException ex) {
+            log.warn("Can't restore the userdir template '" + template.getAbsolutePath() + "'");
+            log.debug(ex);
+            return false;
+        }
+        log.info("Restored userdir template '" + key + "' in " + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    /**
+     * Capture the userdir as template. The template is written to a temporary
+     * folder first, so a failed capture never leaves a partial template.
+     *
+     * @param key template key
+     * @param userdir Gephi user directory
+     */
+    protected void capture(String key, File userdir) {
+        File template = new File(templatesFolder, key);
+        File temporary = new File(templatesFolder, key + ".tmp");
+        try {
+            if (temporary.exists()) {
+                FileUtils.deleteDirectory(temporary);
+            }
+            copy(userdir.toPath(), temporary.toPath());
+            if (!temporary.renameTo(template)) {
+                FileUtils.deleteDirectory(temporary);
+                log.debug("The userdir template '" + key + "' has been captured concurrently");
+                return;
+            }
+        } catch (IOException ex) {
+            log.warn("Can't capture the userdir template '" + template.getAbsolutePath() + "'");
+            log.debug(ex);
+            return;
+        }
+        log.info("Captured userdir template '" + key + "' at '" + template.getAbsolutePath() + "'");
+    }
+
+    private static void copy(final Path source, final Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (isExcluded(source.relativize(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!isExcluded(source.relativize(file))) {
+                    Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isExcluded(Path relative) {
+        for (String excluded : EXCLUDED) {
+            if (relative.toString().equals(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
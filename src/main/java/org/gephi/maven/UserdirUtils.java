@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarFile;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Gephi user directory utilities.
+ */
+public class UserdirUtils {
+
+    /**
+     * Returns the code name base of the reactor modules, read from their
+     * built jar.
+     *
+     * @param modules modules
+     * @return code name bases, in the same order
+     * @throws MojoExecutionException if a module hasn't been built
+     */
+    protected static List<String> getCodeNameBases(List<MavenProject> modules) throws MojoExecutionException {
+        List<String> result = new ArrayList<String>();
+        for (MavenProject module : modules) {
+            File jar = NbmUtils.getModuleJar(module);
+            if (!jar.exists()) {
+                throw new MojoExecutionException("The module jar '" + jar.getAbsolutePath() + "' can't be found, please invoke 'mvn package' on the project first");
+            }
+            String codeNameBase = null;
+            try {
+                JarFile jarFile = new JarFile(jar);
+                try {
+                    if (jarFile.getManifest() != null) {
+                        codeNameBase = jarFile.getManifest().getMainAttributes().getValue("OpenIDE-Module");
+                    }
+                } finally {
+                    jarFile.close();
+                }
+            } catch (IOException ex) {
+                throw new MojoExecutionException("Error while reading '" + jar.getAbsolutePath() + "'", ex);
+            }
+            if (codeNameBase == null) {
+                throw new MojoExecutionException("The module jar '" + jar.getAbsolutePath() + "' has no 'OpenIDE-Module' manifest entry");
+            }
+            // Strip the major release version, e.g. 'org.foo/1'
+            result.add(codeNameBase.split("/")[0].trim());
+        }
+        return result;
+    }
+
+    /**
+     * Enable or disable the module in the userdir. Disabling writes a module
+     * status file overriding the cluster's, enabling removes it.
+     *
+     * @param userdir Gephi user directory
+     * @param codeNameBase module code name base
+     * @param enabled true to enable, false to disable
+     * @throws IOException if the status file can't be written
+     */
+    protected static void setModuleEnabled(File userdir, String codeNameBase, boolean enabled) throws IOException {
+        String dashes = codeNameBase.replace('.', '-');
+        File statusFile = new File(userdir, "config" + File.separator + "Modules" + File.separator + dashes + ".xml");
+        if (enabled) {
+            Files.deleteIfExists(statusFile.toPath());
+            return;
+        }
+        statusFile.getParentFile().mkdirs();
+        String status = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<!DOCTYPE module PUBLIC \"-//NetBeans//DTD Module Status 1.0//EN\"\n"
+                + "                        \"http://www.netbeans.org/dtds/module-status-1_0.dtd\">\n"
+                + "<module name=\"" + codeNameBase + "\">\n"
+                + "    <param name=\"autoload\">false</param>\n"
+                + "    <param name=\"eager\">false</param>\n"
+                + "    <param name=\"enabled\">false</param>\n"
+                + "    <param name=\"jar\">modules/" + dashes + ".jar</param>\n"
+                + "    <param name=\"reloadable\">false</param>\n"
+                + "</module>\n";
+        Files.write(statusFile.toPath(), status.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -15,10 +15,23 @@
  */
 package org.gephi.maven;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import org.apache.maven.Maven;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -26,7 +39,11 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.apache.tools.ant.taskdefs.Manifest;
 import org.gephi.maven.json.PluginMetadata;
+import org.gephi.maven.json.StartupCost;
+import org.gephi.maven.json.ValidationReport;
+import org.gephi.maven.json.ValidationViolation;
 
 /**
  * Validate the plugin.
@@ -58,9 +75,124 @@ public class Validate extends AbstractMojo {
     @Parameter(required = true, readonly = true, property = "project")
     private MavenProject project;
 
+    /**
+     * The Maven session, scoping the manifest cache.
+     */
+    @Parameter(required = true, readonly = true, defaultValue = "${session}")
+    private MavenSession session;
+
+    /**
+     * Run the checks of all modules concurrently and report every violation,
+     * instead of stopping at the first one.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.validate.aggregate")
+    private boolean aggregate;
+
+    /**
+     * Number of threads running the checks in aggregate mode. Defaults to the
+     * number of available processors.
+     */
+    @Parameter(defaultValue = "0", property = "gephi.validate.threads")
+    private int threads;
+
+    /**
+     * JSON report listing all violations, written in aggregate mode.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi-validation.json", property = "gephi.validate.report")
+    private File reportFile;
+
+    /**
+     * Skip the checks of modules whose inputs haven't changed since their last
+     * successful validation.
+     */
+    @Parameter(defaultValue = "true", property = "gephi.validate.incremental")
+    private boolean incremental;
+
+    /**
+     * File storing the fingerprints of the validated modules.
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/gephi-validation.cache")
+    private File incrementalCacheFile;
+
+    /**
+     * Version of this plugin, part of the modules fingerprint.
+     */
+    @Parameter(readonly = true, defaultValue = "${plugin.version}")
+    private String pluginVersion;
+
+    /**
+     * Maximum size in bytes of a module's NBM, zero to disable.
+     */
+    @Parameter(defaultValue = "20971520", property = "gephi.budget.nbmSize")
+    private long maxNbmSize;
+
+    /**
+     * Maximum size in bytes of a suite's ZIP, zero to disable.
+     */
+    @Parameter(defaultValue = "52428800", property = "gephi.budget.suiteSize")
+    private long maxSuiteSize;
+
+    /**
+     * Maximum size in bytes of a library bundled in a NBM, zero to disable.
+     */
+    @Parameter(defaultValue = "10485760", property = "gephi.budget.bundledJarSize")
+    private long maxBundledJarSize;
+
+    /**
+     * Maximum size in bytes of a screenshot in <em>src/img</em>, zero to
+     * disable.
+     */
+    @Parameter(defaultValue = "2097152", property = "gephi.budget.screenshotSize")
+    private long maxScreenshotSize;
+
+    /**
+     * Maximum number of pixels of a screenshot in <em>src/img</em>, zero to
+     * disable.
+     */
+    @Parameter(defaultValue = "4194304", property = "gephi.budget.screenshotPixels")
+    private long maxScreenshotPixels;
+
+    /**
+     * Maximum size in bytes of the <em>README.md</em>, zero to disable.
+     */
+    @Parameter(defaultValue = "102400", property = "gephi.budget.readmeSize")
+    private long maxReadmeSize;
+
+    /**
+     * Fail the validation when a size budget is exceeded, instead of a
+     * warning.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.budget.fail")
+    private boolean failOnBudget;
+
+    /**
+     * Analyze the modules for patterns slowing down Gephi's startup and report
+     * their estimated cost.
+     */
+    @Parameter(defaultValue = "true", property = "gephi.validate.startupLint")
+    private boolean startupLint;
+
+    /**
+     * Fail the validation when modules of a suite bundle the same library,
+     * instead of a warning.
+     */
+    @Parameter(defaultValue = "false", property = "gephi.validate.failOnDuplicateLibraries")
+    private boolean failOnDuplicateLibraries;
+
+    /**
+     * Size budgets.
+     */
+    private SizeBudgets sizeBudgets;
+
+    /**
+     * Estimated startup costs of the analyzed modules.
+     */
+    private final List<StartupCost> startupCosts = Collections.synchronizedList(new ArrayList<StartupCost>());
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        manifestUtils = new ManifestUtils(sourceManifestFile, getLog());
+        manifestUtils = new ManifestUtils(sourceManifestFile, session, getLog());
+        sizeBudgets = new SizeBudgets(maxNbmSize, maxSuiteSize, maxBundledJarSize, maxScreenshotSize, maxScreenshotPixels, maxReadmeSize, getLog());
         if (reactorProjects != null && reactorProjects.size() > 0) {
             getLog().debug("Found " + reactorProjects.size() + " projects in reactor");
             List<MavenProject> modules = new ArrayList<MavenProject>();
@@ -71,26 +203,61 @@ public class Validate extends AbstractMojo {
                 }
             }
 
+            for (MavenProject module : modules) {
+                File nbmFile = NbmUtils.getNbmFile(module);
+                File jarFile = NbmUtils.getModuleJar(module);
+                if ((nbmFile.exists() && !NbmUtils.isCurrent(module, nbmFile))
+                        || (jarFile.exists() && !NbmUtils.isCurrent(module, jarFile))) {
+                    getLog().warn("The artifacts of module '" + module.getArtifactId() + "' are older than its sources and aren't checked, run the validation after 'package' to check their size, startup cost and bundled libraries");
+                }
+            }
+
+            List<ModuleChecks> checks;
             if (modules.isEmpty()) {
                 throw new MojoExecutionException("No 'nbm' modules have been detected, make sure to add folders to <modules> into pom");
             } else if (modules.size() == 1) {
                 // Unique NBM module
-                executeSingleModuleProject(modules.get(0));
+                checks = getSingleModuleProjectChecks(modules.get(0));
             } else {
-                executeMultiModuleProject(modules);
+                checks = getMultiModuleProjectChecks(modules);
+            }
+
+            ValidationCache cache = null;
+            if (incremental) {
+                String salt = pluginVersion + ":" + project.getProperties().getProperty("gephi.version");
+                cache = new ValidationCache(incrementalCacheFile, sourceManifestFile, salt, getLog());
+            }
+            try {
+                if (aggregate) {
+                    runAggregated(checks, modules.size(), cache);
+                } else {
+                    for (ModuleChecks moduleChecks : checks) {
+                        moduleChecks.run(cache, true);
+                    }
+                }
+            } finally {
+                if (cache != null) {
+                    cache.save();
+                }
             }
         } else {
             throw new MojoExecutionException("The project should be a reactor project");
         }
     }
 
-    private void executeSingleModuleProject(MavenProject moduleProject) throws MojoExecutionException, MojoFailureException {
+    private List<ModuleChecks> getSingleModuleProjectChecks(MavenProject moduleProject) {
         getLog().info("Unique module found: '" + moduleProject.getName() + "'");
-        checkGephiVersion(moduleProject);
-        checkMetadata(moduleProject);
+        List<ModuleChecks> result = new ArrayList<ModuleChecks>();
+        ModuleChecks moduleChecks = new ModuleChecks(moduleProject);
+        addGephiVersionCheck(moduleChecks);
+        addMetadataChecks(moduleChecks);
+        addSizeBudgetCheck(moduleChecks);
+        addStartupLintCheck(moduleChecks);
+        result.add(moduleChecks);
+        return result;
     }
 
-    private void executeMultiModuleProject(List<MavenProject> projects) throws MojoExecutionException, MojoFailureException {
+    private List<ModuleChecks> getMultiModuleProjectChecks(List<MavenProject> projects) throws MojoExecutionException {
         // Multiple NBM modules
         Map<MavenProject, List<MavenProject>> tree = ModuleUtils.getModulesTree(projects, getLog());
         if (tree.isEmpty()) {
@@ -99,36 +266,306 @@ public class Validate extends AbstractMojo {
             getLog().info("Multiple modules found: " + tree.size() + " projects");
         }
 
+        List<ModuleChecks> result = new ArrayList<ModuleChecks>();
         for (Map.Entry<MavenProject, List<MavenProject>> entry : tree.entrySet()) {
             getLog().info("Suite of modules found: '" + entry.getKey().getName() + "'");
-            List<MavenProject> children = entry.getValue();
-            checkSameGephiVersion(children);
+            final MavenProject topPlugin = entry.getKey();
+            final List<MavenProject> suite = new ArrayList<MavenProject>(entry.getValue());
+
+            ModuleChecks suiteChecks = new ModuleChecks(topPlugin);
+            suiteChecks.checks.add(new Check("same-gephi-version", false) {
+                @Override
+                void run() throws MojoExecutionException {
+                    checkSameGephiVersion(suite);
+                }
+            });
+            suiteChecks.checks.add(new Check("suite-size-budget", false) {
+                @Override
+                void run() throws MojoExecutionException {
+                    enforceBudgets(sizeBudgets.checkSuite(topPlugin, suite));
+                }
+            });
+            suiteChecks.checks.add(new Check("duplicate-libraries", true) {
+                private List<String> duplicates;
 
-            children.remove(entry.getKey());
+                @Override
+                List<File> getArtifacts() {
+                    List<File> nbms = new ArrayList<File>();
+                    for (MavenProject module : suite) {
+                        nbms.add(NbmUtils.getNbmFile(module));
+                    }
+                    return nbms;
+                }
+
+                @Override
+                String getResult() {
+                    return duplicates != null ? new Gson().toJson(duplicates.toArray(new String[0])) : null;
+                }
+
+                @Override
+                boolean replay(String result) throws MojoExecutionException {
+                    String[] saved = null;
+                    try {
+                        saved = result != null ? new Gson().fromJson(result, String[].class) : null;
+                    } catch (JsonSyntaxException ex) {
+                        getLog().debug(ex);
+                    }
+                    if (saved == null) {
+                        return false;
+                    }
+                    reportDuplicates(Arrays.asList(saved));
+                    return true;
+                }
+
+                @Override
+                void run() throws MojoExecutionException {
+                    duplicates = new BundledLibraries(getLog()).checkSuite(suite);
+                    reportDuplicates(duplicates);
+                }
+            });
+            result.add(suiteChecks);
+
+            List<MavenProject> children = new ArrayList<MavenProject>(suite);
+            children.remove(topPlugin);
             if(children.isEmpty()) {
                 getLog().info("   Single module '" + entry.getKey().getName() + "'");
             }
             for (MavenProject child : children) {
                 getLog().info("   '" + child.getName() + "' is a dependency");
             }
-            for (MavenProject child : children) {
-                checkGephiVersion(child);
-                manifestUtils.checkManifestShowClientFalse(child);
+            for (final MavenProject child : children) {
+                ModuleChecks childChecks = new ModuleChecks(child);
+                addGephiVersionCheck(childChecks);
+                childChecks.checks.add(new Check("manifest-show-in-client", true) {
+                    @Override
+                    void run() throws MojoExecutionException {
+                        manifestUtils.checkManifestShowClientFalse(child);
+                    }
+                });
+                addSizeBudgetCheck(childChecks);
+                addStartupLintCheck(childChecks);
+                result.add(childChecks);
             }
-            checkGephiVersion(entry.getKey());
-            checkMetadata(entry.getKey());
+            ModuleChecks topChecks = new ModuleChecks(entry.getKey());
+            addGephiVersionCheck(topChecks);
+            addMetadataChecks(topChecks);
+            addSizeBudgetCheck(topChecks);
+            addStartupLintCheck(topChecks);
+            result.add(topChecks);
         }
+        return result;
     }
 
-    private void checkMetadata(MavenProject moduleProject) throws MojoExecutionException {
+    /**
+     * Run all the checks concurrently, log and write every violation found and
+     * fail if there's at least one.
+     *
+     * @param checks all checks
+     * @param moduleCount number of modules
+     * @param cache validation cache, or null
+     * @throws MojoExecutionException if at least one check fails
+     */
+    private void runAggregated(List<ModuleChecks> checks, int moduleCount, final ValidationCache cache) throws MojoExecutionException {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        getLog().debug("Running checks of " + moduleCount + " modules with " + poolSize + " threads");
+
+        // The project context isn't thread-safe, the cached configurations
+        // are stored before the checks only read them
+        for (ModuleChecks moduleChecks : checks) {
+            NbmConfiguration.get(moduleChecks.module);
+        }
+
+        List<ValidationViolation> violations = new ArrayList<ValidationViolation>();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<List<ValidationViolation>>> futures = new ArrayList<Future<List<ValidationViolation>>>();
+            for (final ModuleChecks moduleChecks : checks) {
+                futures.add(executor.submit(new Callable<List<ValidationViolation>>() {
+                    @Override
+                    public List<ValidationViolation> call() throws MojoExecutionException {
+                        return moduleChecks.run(cache, false);
+                    }
+                }));
+            }
+            for (Future<List<ValidationViolation>> future : futures) {
+                violations.addAll(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Validation has been interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new MojoExecutionException("Error while running the validation checks", ex.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        for (ValidationViolation violation : violations) {
+            getLog().error("[" + violation.module + "] " + violation.check + ": " + violation.message);
+        }
+
+        ValidationReport report = new ValidationReport();
+        report.modules = moduleCount;
+        report.violations = violations;
+        report.sizes = sizeBudgets.getSizes();
+        synchronized (startupCosts) {
+            report.startup = new ArrayList<StartupCost>(startupCosts);
+        }
+        writeReport(report);
+
+        if (!violations.isEmpty()) {
+            throw new MojoExecutionException(violations.size() + " validation error(s) found, see '" + reportFile.getAbsolutePath() + "' for the full report");
+        }
+        getLog().info("All " + moduleCount + " modules are valid");
+    }
+
+    private void writeReport(ValidationReport report) throws MojoExecutionException {
+        if (reportFile.getParentFile() != null && reportFile.getParentFile().mkdirs()) {
+            getLog().debug("Folder '" + reportFile.getParentFile().getAbsolutePath() + "' created.");
+        }
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            FileWriter writer = new FileWriter(reportFile);
+            writer.append(gson.toJson(report));
+            writer.close();
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Error while writing the validation report '" + reportFile.getAbsolutePath() + "'", ex);
+        }
+        getLog().info("Validation report written to '" + reportFile.getAbsolutePath() + "'");
+    }
+
+    private void addGephiVersionCheck(final ModuleChecks moduleChecks) {
+        moduleChecks.checks.add(new Check("gephi-version", false) {
+            @Override
+            void run() throws MojoExecutionException {
+                checkGephiVersion(moduleChecks.module);
+            }
+        });
+    }
+
+    private void addMetadataChecks(final ModuleChecks moduleChecks) {
+        moduleChecks.checks.add(new Check("license", true) {
+            @Override
+            void run() throws MojoExecutionException {
+                checkLicense(moduleChecks.module);
+            }
+        });
+        moduleChecks.checks.add(new Check("author", true) {
+            @Override
+            void run() throws MojoExecutionException {
+                checkAuthor(moduleChecks.module);
+            }
+        });
+        moduleChecks.checks.add(new Check("manifest-metadata", true) {
+            @Override
+            void run() throws MojoExecutionException {
+                manifestUtils.readManifestMetadata(moduleChecks.module, new PluginMetadata());
+            }
+        });
+    }
+
+    private void addSizeBudgetCheck(final ModuleChecks moduleChecks) {
+        moduleChecks.checks.add(new Check("size-budget", false) {
+            @Override
+            void run() throws MojoExecutionException {
+                enforceBudgets(sizeBudgets.checkModule(moduleChecks.module));
+            }
+        });
+    }
+
+    private void addStartupLintCheck(final ModuleChecks moduleChecks) {
+        if (!startupLint) {
+            return;
+        }
+        moduleChecks.checks.add(new Check("startup-lint", true) {
+            private StartupCost cost;
+
+            @Override
+            List<File> getArtifacts() {
+                return Arrays.asList(NbmUtils.getModuleJar(moduleChecks.module), NbmUtils.getNbmFile(moduleChecks.module));
+            }
+
+            @Override
+            String getResult() {
+                return cost != null ? new Gson().toJson(cost) : null;
+            }
+
+            @Override
+            boolean replay(String result) {
+                StartupCost saved = null;
+                try {
+                    saved = result != null ? new Gson().fromJson(result, StartupCost.class) : null;
+                } catch (JsonSyntaxException ex) {
+                    getLog().debug(ex);
+                }
+                if (saved == null || saved.findings == null) {
+                    return false;
+                }
+                reportStartupCost(moduleChecks.module, saved);
+                return true;
+            }
+
+            @Override
+            void run() throws MojoExecutionException {
+                MavenProject module = moduleChecks.module;
+                Manifest manifest = null;
+                try {
+                    manifest = manifestUtils.getManifest(module);
+                } catch (MojoExecutionException ex) {
+                    getLog().debug(ex);
+                }
+                cost = new StartupLint(getLog()).analyze(module, manifest);
+                reportStartupCost(module, cost);
+            }
+        });
+    }
+
+    private void reportStartupCost(MavenProject module, StartupCost cost) {
+        for (String finding : cost.findings) {
+            getLog().warn("[" + module.getArtifactId() + "] " + finding);
+        }
+        getLog().info("Estimated startup cost of module '" + module.getName() + "': ~" + cost.estimated_ms + " ms");
+        startupCosts.add(cost);
+    }
+
+    private void reportDuplicates(List<String> duplicates) throws MojoExecutionException {
+        if (failOnDuplicateLibraries && !duplicates.isEmpty()) {
+            throw new MojoExecutionException(join(duplicates));
+        }
+        for (String duplicate : duplicates) {
+            getLog().warn(duplicate);
+        }
+    }
+
+    private void enforceBudgets(List<String> exceeded) throws MojoExecutionException {
+        if (exceeded.isEmpty()) {
+            return;
+        }
+        if (failOnBudget) {
+            throw new MojoExecutionException(join(exceeded));
+        }
+        for (String budget : exceeded) {
+            getLog().warn(budget);
+        }
+    }
+
+    private static String join(List<String> messages) {
+        StringBuilder builder = new StringBuilder();
+        for (String message : messages) {
+            builder.append(builder.length() > 0 ? "; " : "").append(message);
+        }
+        return builder.toString();
+    }
+
+    private void checkLicense(MavenProject moduleProject) throws MojoExecutionException {
         if (MetadataUtils.getLicenseName(moduleProject) == null) {
             throw new MojoExecutionException("The 'licenseName' configuration should be set for the project '" + moduleProject.getName() + "'. This can be added to the configuration of the 'nbm-maven-plugin' plugin. In addition, a 'licenseFile' can be specified, relative to the module's root folder.");
         }
+    }
+
+    private void checkAuthor(MavenProject moduleProject) throws MojoExecutionException {
         if (MetadataUtils.getAuthors(moduleProject) == null) {
             throw new MojoExecutionException("The 'author' configuration should be set fot the project '" + moduleProject.getName() + "'. This can be added to the configuration of the 'nbm-maven-plugin' plugin. Multiple authors can be specificed, separated by a comma.");
         }
-
-        manifestUtils.readManifestMetadata(moduleProject, new PluginMetadata());
     }
 
     private void checkGephiVersion(MavenProject moduleProject) throws MojoExecutionException {
@@ -150,4 +587,146 @@ public class Validate extends AbstractMojo {
             }
         }
     }
+
+    /**
+     * Single named check.
+     */
+    private abstract static class Check {
+
+        private final String name;
+        private final boolean incremental;
+
+        /**
+         * @param name check name
+         * @param incremental true if the check only depends on the module's
+         * fingerprinted inputs and can be skipped when they are unchanged
+         */
+        Check(String name, boolean incremental) {
+            this.name = name;
+            this.incremental = incremental;
+        }
+
+        /**
+         * Returns the built files the check reads, part of the fingerprint
+         * of incremental checks.
+         *
+         * @return artifacts, empty by default
+         */
+        List<File> getArtifacts() {
+            return Collections.emptyList();
+        }
+
+        /**
+         * Returns the result of the last run to keep in the cache, e.g. its
+         * warnings, so it's reported again when the check is skipped.
+         *
+         * @return result, null by default
+         */
+        String getResult() {
+            return null;
+        }
+
+        /**
+         * Report the result of a previous run, when the check is skipped.
+         *
+         * @param result recorded result, or null if none
+         * @return false if the check has to run instead
+         * @throws MojoExecutionException if the result is a violation
+         */
+        boolean replay(String result) throws MojoExecutionException {
+            return true;
+        }
+
+        abstract void run() throws MojoExecutionException;
+    }
+
+    /**
+     * Checks to run on a module.
+     */
+    private class ModuleChecks {
+
+        private final MavenProject module;
+        private final List<Check> checks = new ArrayList<Check>();
+
+        ModuleChecks(MavenProject module) {
+            this.module = module;
+        }
+
+        /**
+         * Run the checks and return the violations. Incremental checks are
+         * skipped if the module is up to date in the cache, their recorded
+         * results are reported again.
+         *
+         * @param cache validation cache, or null
+         * @param failFast true to throw the first violation, false to run all
+         * checks
+         * @return list of violations, empty if all checks pass
+         * @throws MojoExecutionException if a check fails in fail-fast mode
+         */
+        List<ValidationViolation> run(ValidationCache cache, boolean failFast) throws MojoExecutionException {
+            String key = null;
+            String fingerprint = null;
+            boolean upToDate = false;
+            if (cache != null && hasIncrementalChecks()) {
+                StringBuilder names = new StringBuilder();
+                List<File> artifacts = new ArrayList<File>();
+                for (Check check : checks) {
+                    if (check.incremental) {
+                        names.append(check.name).append(',');
+                        artifacts.addAll(check.getArtifacts());
+                    }
+                }
+                key = module.getGroupId() + ":" + module.getArtifactId() + ":" + names.toString().hashCode();
+                fingerprint = cache.fingerprint(module, names.toString(), artifacts);
+                upToDate = cache.isUpToDate(key, fingerprint);
+                if (upToDate) {
+                    getLog().info("Module '" + module.getName() + "' is unchanged since its last validation");
+                }
+            }
+
+            List<ValidationViolation> violations = new ArrayList<ValidationViolation>();
+            boolean valid = true;
+            boolean completed = false;
+            try {
+                for (Check check : checks) {
+                    try {
+                        if (upToDate && check.incremental && check.replay(cache.getResult(key, check.name))) {
+                            continue;
+                        }
+                        check.run();
+                        if (key != null && check.incremental) {
+                            cache.recordResult(key, check.name, check.getResult());
+                        }
+                    } catch (MojoExecutionException ex) {
+                        valid &= !check.incremental;
+                        if (failFast) {
+                            throw ex;
+                        }
+                        ValidationViolation violation = new ValidationViolation();
+                        violation.module = module.getArtifactId();
+                        violation.check = check.name;
+                        violation.message = ex.getMessage();
+                        violations.add(violation);
+                    }
+                }
+                completed = true;
+            } finally {
+                if (key != null && !upToDate) {
+                    // Only a complete run tells if the module is valid
+                    valid &= completed;
+                    cache.record(key, fingerprint, valid);
+                }
+            }
+            return violations;
+        }
+
+        private boolean hasIncrementalChecks() {
+            for (Check check : checks) {
+                if (check.incremental) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Results of the previous validations, keyed by a fingerprint of each module's
+ * inputs.
+ * <p>
+ * The fingerprint covers the manifest, the localizing bundle, the
+ * <em>pom.xml</em>, the <em>nbm-maven-plugin</em> configuration, the Gephi
+ * versions and the version of this plugin, and optionally built artifacts by
+ * size and modification time. Only successful validations are recorded, along
+ * with the results of checks that only warn so they can be reported again.
+ */
+public class ValidationCache {
+
+    private static final String BUNDLE_ATTRIBUTE = "OpenIDE-Module-Localizing-Bundle:";
+
+    private final File cacheFile;
+    private final String sourceManifestFile;
+    private final String salt;
+    private final Log log;
+    private final Properties entries = new Properties();
+
+    /**
+     * Creates the cache and loads the existing entries, if any.
+     *
+     * @param cacheFile file the entries are persisted to
+     * @param sourceManifestFile manifest path, relative to the module
+     * @param salt additional value included in every fingerprint, e.g. plugin
+     * and Gephi versions
+     * @param log log
+     */
+    public ValidationCache(File cacheFile, String sourceManifestFile, String salt, Log log) {
+        this.cacheFile = cacheFile;
+        this.sourceManifestFile = sourceManifestFile;
+        this.salt = salt;
+        this.log = log;
+        if (cacheFile.exists()) {
+            InputStream is = null;
+            try {
+                is = new FileInputStream(cacheFile);
+                entries.load(is);
+                log.debug("Loaded " + entries.size() + " validation results from '" + cacheFile.getAbsolutePath() + "'");
+            } catch (IOException ex) {
+                log.warn("Can't read validation cache '" + cacheFile.getAbsolutePath() + "', all modules will be validated");
+                log.debug(ex);
+                entries.clear();
+            } finally {
+                close(is);
+            }
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the module's validation inputs.
+     *
+     * @param module module
+     * @param checks name of the checks, so a different set of checks doesn't
+     * reuse the result
+     * @return fingerprint or null if it can't be computed
+     */
+    protected String fingerprint(MavenProject module, String checks) {
+        return fingerprint(module, checks, Collections.<File>emptyList());
+    }
+
+    /**
+     * Returns the fingerprint of the module's validation inputs and of the
+     * given artifacts. Artifacts are compared by size and modification time
+     * so large jars aren't read.
+     *
+     * @param module module
+     * @param checks name of the checks, so a different set of checks doesn't
+     * reuse the result
+     * @param artifacts built files the checks read, e.g. the module jar
+     * @return fingerprint or null if it can't be computed
+     */
+    protected String fingerprint(MavenProject module, String checks, List<File> artifacts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, salt);
+            update(digest, checks);
+            update(digest, module.getProperties().getProperty("gephi.version"));
+            update(digest, NbmConfiguration.get(module).getRawConfiguration());
+            update(digest, module.getFile());
+            File manifestFile = new File(module.getBasedir(), sourceManifestFile);
+            update(digest, manifestFile);
+            String bundle = getLocalizingBundle(manifestFile);
+            if (bundle != null) {
+                File resources = new File(module.getBasedir(), "src" + File.separator + "main" + File.separator + "resources");
+                update(digest, new File(resources, bundle.replace('/', File.separatorChar)));
+            }
+            for (File artifact : artifacts) {
+                update(digest, artifact.getAbsolutePath());
+                update(digest, artifact.exists() ? artifact.length() + "|" + artifact.lastModified() : "missing");
+            }
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest.digest()) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            log.debug(ex);
+        } catch (IOException ex) {
+            log.debug("Can't compute the fingerprint of module '" + module.getName() + "'");
+            log.debug(ex);
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the module has been validated successfully with the
+     * same fingerprint.
+     *
+     * @param key module key
+     * @param fingerprint current fingerprint
+     * @return true if up to date
+     */
+    protected boolean isUpToDate(String key, String fingerprint) {
+        return fingerprint != null && fingerprint.equals(entries.getProperty(key));
+    }
+
+    /**
+     * Record the validation result of a module.
+     *
+     * @param key module key
+     * @param fingerprint fingerprint of the validated inputs
+     * @param valid true if the validation was successful
+     */
+    protected void record(String key, String fingerprint, boolean valid) {
+        if (valid && fingerprint != null) {
+            entries.setProperty(key, fingerprint);
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Returns the result a check recorded for the module.
+     *
+     * @param key module key
+     * @param check check name
+     * @return result or null if none
+     */
+    protected String getResult(String key, String check) {
+        return entries.getProperty(key + "#" + check);
+    }
+
+    /**
+     * Record the result of a check, e.g. its warnings, to report it again
+     * while the module is up to date.
+     *
+     * @param key module key
+     * @param check check name
+     * @param result result or null to remove it
+     */
+    protected void recordResult(String key, String check, String result) {
+        if (result != null) {
+            entries.setProperty(key + "#" + check, result);
+        } else {
+            entries.remove(key + "#" + check);
+        }
+    }
+
+    /**
+     * Persist the entries.
+     */
+    protected void save() {
+        if (cacheFile.getParentFile() != null && cacheFile.getParentFile().mkdirs()) {
+            log.debug("Folder '" + cacheFile.getParentFile().getAbsolutePath() + "' created.");
+        }
+        OutputStream os = null;
+        try {
+            os = new FileOutputStream(cacheFile);
+            entries.store(os, "Gephi plugin validation results");
+        } catch (IOException ex) {
+            log.warn("Can't write validation cache '" + cacheFile.getAbsolutePath() + "'");
+            log.debug(ex);
+        } finally {
+            close(os);
+        }
+    }
+
+    /**
+     * Returns the localizing bundle path declared in the manifest, without
+     * parsing it.
+     */
+    private static String getLocalizingBundle(File manifestFile) throws IOException {
+        if (!manifestFile.exists()) {
+            return null;
+        }
+        BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(BUNDLE_ATTRIBUTE)) {
+                    return line.substring(BUNDLE_ATTRIBUTE.length()).trim();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return null;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, File file) throws IOException {
+        update(digest, file != null ? file.getName() : null);
+        if (file == null || !file.exists()) {
+            return;
+        }
+        InputStream is = Files.newInputStream(file.toPath());
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+            }
+        }
+    }
+}
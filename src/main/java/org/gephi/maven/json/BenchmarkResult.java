@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven.json;
+
+import java.util.List;
+
+/**
+ * Startup times in milliseconds of a benchmarked configuration.
+ */
+public class BenchmarkResult {
+
+    public String configuration;
+    public List<String> modules;
+    public List<Long> times;
+    public long median;
+    public long p90;
+    public long min;
+    public long max;
+    public Long delta_median;
+}
@@ -15,8 +15,15 @@
  */
 package org.gephi.maven.json;
 
+import java.util.List;
+
 public class Image {
 
     public String image;
     public String thumbnail;
+    public Integer width;
+    public Integer height;
+    public Long size;
+    public String placeholder;
+    public List<ImageVariant> variants;
 }
@@ -33,6 +33,7 @@ public class PluginMetadata {
     public String category;
     public String last_update;
     public List<Image> images;
+    public Sprite thumbnail_sprite;
     public Map<String, Version> versions;
     public String sourcecode;
     public String homepage;
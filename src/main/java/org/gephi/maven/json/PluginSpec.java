@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven.json;
+
+/**
+ * Plugin to generate in batch mode, with the same values as the interactive
+ * questions.
+ */
+public class PluginSpec {
+
+    public String organization;
+    public String artifact;
+    public String version;
+    public String folder;
+    public String branding;
+    public String category;
+    public String author;
+    public String author_email;
+    public String author_url;
+    public String license;
+    public String short_description;
+    public String long_description;
+    public Boolean readme;
+    public Boolean benchmark;
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015 Gephi Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gephi.maven.json;
+
+import java.util.List;
+
+/**
+ * Result of loading plugin modules in a Gephi instance.
+ */
+public class SmokeTestResult {
+
+    public String plugin;
+    public List<String> modules;
+    public boolean passed;
+    public Long load_ms;
+    public List<String> errors;
+}
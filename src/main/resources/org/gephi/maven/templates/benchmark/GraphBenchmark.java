@@ -0,0 +1,59 @@
+package ${package_name};
+
+import java.util.concurrent.TimeUnit;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the $branding_name plugin on synthetic graphs.
+ * <p>
+ * Replace the example benchmark with calls to the plugin's code, e.g. a
+ * layout's <code>goAlgo()</code> or a metric's <code>execute()</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+
+    @Param({"10000"})
+    public int nodes;
+
+    @Param({"50000"})
+    public int edges;
+
+    private GraphModel graphModel;
+
+    @Setup
+    public void setup() {
+        graphModel = GraphGenerator.randomGraph(nodes, edges, false, 42L);
+    }
+
+    @Benchmark
+    public void degrees(Blackhole blackhole) {
+        Graph graph = graphModel.getGraph();
+        graph.readLock();
+        try {
+            for (Node node : graph.getNodes()) {
+                blackhole.consume(graph.getDegree(node));
+            }
+        } finally {
+            graph.readUnlock();
+        }
+    }
+}
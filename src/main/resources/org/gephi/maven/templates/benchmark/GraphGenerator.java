@@ -0,0 +1,109 @@
+package ${package_name};
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.GraphFactory;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Node;
+
+/**
+ * Synthetic graphs for benchmarks. The same seed always gives the same graph.
+ */
+public class GraphGenerator {
+
+    /**
+     * Random graph with exactly the given number of nodes and edges, without
+     * self-loops or parallel edges.
+     */
+    public static GraphModel randomGraph(int nodes, int edges, boolean directed, long seed) {
+        long maxEdges = (long) nodes * (nodes - 1) / (directed ? 1 : 2);
+        if (edges > maxEdges) {
+            throw new IllegalArgumentException("A graph of " + nodes + " nodes can't have " + edges + " edges");
+        }
+        GraphModel graphModel = GraphModel.Factory.newInstance();
+        GraphFactory factory = graphModel.factory();
+        List<Node> nodeList = createNodes(factory, nodes);
+
+        Random random = new Random(seed);
+        Set<Long> pairs = new HashSet<Long>();
+        List<Edge> edgeList = new ArrayList<Edge>(edges);
+        while (edgeList.size() < edges) {
+            int source = random.nextInt(nodes);
+            int target = random.nextInt(nodes);
+            if (source == target) {
+                continue;
+            }
+            if (!directed && source > target) {
+                int tmp = source;
+                source = target;
+                target = tmp;
+            }
+            if (pairs.add((long) source * nodes + target)) {
+                edgeList.add(factory.newEdge(nodeList.get(source), nodeList.get(target), 0, 1.0, directed));
+            }
+        }
+        return fill(graphModel, nodeList, edgeList, directed);
+    }
+
+    /**
+     * Scale-free graph built by preferential attachment (Barabasi-Albert),
+     * each new node being connected to <code>edgesPerNode</code> existing
+     * nodes.
+     */
+    public static GraphModel scaleFreeGraph(int nodes, int edgesPerNode, boolean directed, long seed) {
+        if (edgesPerNode < 1 || edgesPerNode >= nodes) {
+            throw new IllegalArgumentException("The number of edges per node should be between 1 and " + (nodes - 1));
+        }
+        GraphModel graphModel = GraphModel.Factory.newInstance();
+        GraphFactory factory = graphModel.factory();
+        List<Node> nodeList = createNodes(factory, nodes);
+
+        Random random = new Random(seed);
+        // Each node appears once per incident edge, so picking a random
+        // element picks a node proportionally to its degree
+        List<Integer> endpoints = new ArrayList<Integer>();
+        List<Edge> edgeList = new ArrayList<Edge>();
+        for (int i = 0; i <= edgesPerNode; i++) {
+            for (int j = 0; j < i; j++) {
+                edgeList.add(factory.newEdge(nodeList.get(i), nodeList.get(j), 0, 1.0, directed));
+                endpoints.add(i);
+                endpoints.add(j);
+            }
+        }
+        for (int i = edgesPerNode + 1; i < nodes; i++) {
+            Set<Integer> targets = new HashSet<Integer>();
+            while (targets.size() < edgesPerNode) {
+                targets.add(endpoints.get(random.nextInt(endpoints.size())));
+            }
+            for (Integer target : targets) {
+                edgeList.add(factory.newEdge(nodeList.get(i), nodeList.get(target), 0, 1.0, directed));
+                endpoints.add(i);
+                endpoints.add(target);
+            }
+        }
+        return fill(graphModel, nodeList, edgeList, directed);
+    }
+
+    private static List<Node> createNodes(GraphFactory factory, int nodes) {
+        List<Node> nodeList = new ArrayList<Node>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            nodeList.add(factory.newNode(String.valueOf(i)));
+        }
+        return nodeList;
+    }
+
+    private static GraphModel fill(GraphModel graphModel, List<Node> nodes, List<Edge> edges, boolean directed) {
+        if (directed) {
+            graphModel.getDirectedGraph().addAllNodes(nodes);
+            graphModel.getDirectedGraph().addAllEdges(edges);
+        } else {
+            graphModel.getUndirectedGraph().addAllNodes(nodes);
+            graphModel.getUndirectedGraph().addAllEdges(edges);
+        }
+        return graphModel;
+    }
+}
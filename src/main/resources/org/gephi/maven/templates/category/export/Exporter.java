@@ -0,0 +1,100 @@
+package ${package_name};
+
+import java.io.IOException;
+import java.io.Writer;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.EdgeIterable;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphController;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.io.exporter.spi.CharacterExporter;
+import org.gephi.io.exporter.spi.GraphExporter;
+import org.gephi.project.api.Workspace;
+import org.gephi.utils.longtask.spi.LongTask;
+import org.gephi.utils.progress.Progress;
+import org.gephi.utils.progress.ProgressTicket;
+import org.openide.util.Lookup;
+
+/**
+ * $branding_name exporter, writing an edge list with one
+ * <em>source,target,weight</em> edge per line.
+ * <p>
+ * Edges are written as they are iterated, without building the output in
+ * memory.
+ */
+public class ${class_prefix}Exporter implements GraphExporter, CharacterExporter, LongTask {
+
+    private boolean exportVisible;
+    private Workspace workspace;
+    private Writer writer;
+    private volatile boolean cancelled;
+    private ProgressTicket progressTicket;
+
+    @Override
+    public boolean execute() {
+        cancelled = false;
+        GraphModel graphModel = Lookup.getDefault().lookup(GraphController.class).getGraphModel(workspace);
+        Graph graph = exportVisible ? graphModel.getGraphVisible() : graphModel.getGraph();
+        graph.readLock();
+        try {
+            Progress.start(progressTicket, graph.getEdgeCount());
+            EdgeIterable edges = graph.getEdges();
+            int count = 0;
+            for (Edge edge : edges) {
+                if (cancelled) {
+                    edges.doBreak();
+                    break;
+                }
+                writer.append(String.valueOf(edge.getSource().getId())).append(',')
+                        .append(String.valueOf(edge.getTarget().getId())).append(',')
+                        .append(String.valueOf(edge.getWeight())).append('\n');
+                if (++count % 10000 == 0) {
+                    Progress.progress(progressTicket, count);
+                }
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            graph.readUnlock();
+            Progress.finish(progressTicket);
+        }
+        return !cancelled;
+    }
+
+    @Override
+    public void setExportVisible(boolean exportVisible) {
+        this.exportVisible = exportVisible;
+    }
+
+    @Override
+    public boolean isExportVisible() {
+        return exportVisible;
+    }
+
+    @Override
+    public void setWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void setWorkspace(Workspace workspace) {
+        this.workspace = workspace;
+    }
+
+    @Override
+    public Workspace getWorkspace() {
+        return workspace;
+    }
+
+    @Override
+    public boolean cancel() {
+        cancelled = true;
+        return true;
+    }
+
+    @Override
+    public void setProgressTicket(ProgressTicket progressTicket) {
+        this.progressTicket = progressTicket;
+    }
+}
@@ -0,0 +1,28 @@
+package ${package_name};
+
+import org.gephi.io.exporter.api.FileType;
+import org.gephi.io.exporter.spi.GraphExporter;
+import org.gephi.io.exporter.spi.GraphFileExporterBuilder;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Registers the $branding_name exporter for <em>.edgelist</em> files.
+ */
+@ServiceProvider(service = GraphFileExporterBuilder.class)
+public class ${class_prefix}ExporterBuilder implements GraphFileExporterBuilder {
+
+    @Override
+    public GraphExporter buildExporter() {
+        return new ${class_prefix}Exporter();
+    }
+
+    @Override
+    public FileType[] getFileTypes() {
+        return new FileType[]{new FileType(".edgelist", "$branding_name")};
+    }
+
+    @Override
+    public String getName() {
+        return "$branding_name";
+    }
+}
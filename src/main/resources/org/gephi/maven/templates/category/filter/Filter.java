@@ -0,0 +1,55 @@
+package ${package_name};
+
+import org.gephi.filters.spi.FilterProperty;
+import org.gephi.filters.spi.NodeFilter;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.Node;
+
+/**
+ * $branding_name filter, keeping the nodes with a minimum degree.
+ * <p>
+ * <code>evaluate</code> is called for every node, so it should be cheap.
+ * Compute anything shared by all nodes once in <code>init</code>.
+ */
+public class ${class_prefix}Filter implements NodeFilter {
+
+    private Integer minDegree = 1;
+
+    @Override
+    public String getName() {
+        return "$branding_name";
+    }
+
+    @Override
+    public FilterProperty[] getProperties() {
+        try {
+            return new FilterProperty[]{
+                FilterProperty.createProperty(this, Integer.class, "minDegree")
+            };
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public boolean init(Graph graph) {
+        return graph.getNodeCount() > 0;
+    }
+
+    @Override
+    public boolean evaluate(Graph graph, Node node) {
+        return graph.getDegree(node) >= minDegree;
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    public Integer getMinDegree() {
+        return minDegree;
+    }
+
+    public void setMinDegree(Integer minDegree) {
+        this.minDegree = minDegree;
+    }
+}
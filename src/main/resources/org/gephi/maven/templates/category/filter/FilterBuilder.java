@@ -0,0 +1,51 @@
+package ${package_name};
+
+import javax.swing.Icon;
+import javax.swing.JPanel;
+import org.gephi.filters.api.FilterLibrary;
+import org.gephi.filters.spi.Category;
+import org.gephi.filters.spi.Filter;
+import org.gephi.filters.spi.FilterBuilder;
+import org.gephi.project.api.Workspace;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Registers the $branding_name filter in the Topology category.
+ */
+@ServiceProvider(service = FilterBuilder.class)
+public class ${class_prefix}FilterBuilder implements FilterBuilder {
+
+    @Override
+    public Category getCategory() {
+        return FilterLibrary.TOPOLOGY;
+    }
+
+    @Override
+    public String getName() {
+        return "$branding_name";
+    }
+
+    @Override
+    public Icon getIcon() {
+        return null;
+    }
+
+    @Override
+    public String getDescription() {
+        return "$branding_name";
+    }
+
+    @Override
+    public Filter getFilter(Workspace workspace) {
+        return new ${class_prefix}Filter();
+    }
+
+    @Override
+    public JPanel getPanel(Filter filter) {
+        return null;
+    }
+
+    @Override
+    public void destroy(Filter filter) {
+    }
+}
@@ -0,0 +1,101 @@
+package ${package_name};
+
+import java.util.Random;
+import org.gephi.io.generator.spi.Generator;
+import org.gephi.io.generator.spi.GeneratorUI;
+import org.gephi.io.importer.api.ContainerLoader;
+import org.gephi.io.importer.api.EdgeDirectionDefault;
+import org.gephi.io.importer.api.EdgeDraft;
+import org.gephi.io.importer.api.NodeDraft;
+import org.gephi.utils.progress.Progress;
+import org.gephi.utils.progress.ProgressTicket;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * $branding_name generator, creating a random graph.
+ * <p>
+ * Edges are drawn by skipping over the pairs of nodes with a geometric
+ * distribution (Batagelj-Brandes), so the generation is linear in the number
+ * of edges instead of quadratic in the number of nodes.
+ */
+@ServiceProvider(service = Generator.class)
+public class ${class_prefix}Generator implements Generator {
+
+    private int numberOfNodes = 1000;
+    private double wiringProbability = 0.01;
+    private volatile boolean cancelled;
+    private ProgressTicket progressTicket;
+
+    @Override
+    public void generate(ContainerLoader container) {
+        cancelled = false;
+        Progress.start(progressTicket, numberOfNodes);
+        container.setEdgeDefault(EdgeDirectionDefault.UNDIRECTED);
+        Random random = new Random();
+
+        NodeDraft[] nodes = new NodeDraft[numberOfNodes];
+        for (int i = 0; i < numberOfNodes && !cancelled; i++) {
+            NodeDraft node = container.factory().newNodeDraft(String.valueOf(i));
+            container.addNode(node);
+            nodes[i] = node;
+        }
+
+        if (wiringProbability > 0 && !cancelled) {
+            double logQ = Math.log(1.0 - Math.min(wiringProbability, 0.999999));
+            int v = 1;
+            int w = -1;
+            while (v < numberOfNodes && !cancelled) {
+                w += 1 + (int) Math.floor(Math.log(1.0 - random.nextDouble()) / logQ);
+                while (w >= v && v < numberOfNodes) {
+                    w -= v;
+                    v++;
+                    Progress.progress(progressTicket, v);
+                }
+                if (v < numberOfNodes) {
+                    EdgeDraft edge = container.factory().newEdgeDraft();
+                    edge.setSource(nodes[v]);
+                    edge.setTarget(nodes[w]);
+                    container.addEdge(edge);
+                }
+            }
+        }
+        Progress.finish(progressTicket);
+    }
+
+    @Override
+    public String getName() {
+        return "$branding_name";
+    }
+
+    @Override
+    public GeneratorUI getUI() {
+        return null;
+    }
+
+    @Override
+    public boolean cancel() {
+        cancelled = true;
+        return true;
+    }
+
+    @Override
+    public void setProgressTicket(ProgressTicket progressTicket) {
+        this.progressTicket = progressTicket;
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public void setNumberOfNodes(int numberOfNodes) {
+        this.numberOfNodes = numberOfNodes;
+    }
+
+    public double getWiringProbability() {
+        return wiringProbability;
+    }
+
+    public void setWiringProbability(double wiringProbability) {
+        this.wiringProbability = wiringProbability;
+    }
+}
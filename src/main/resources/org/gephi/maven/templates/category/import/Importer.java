@@ -0,0 +1,108 @@
+package ${package_name};
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import org.gephi.io.importer.api.ContainerLoader;
+import org.gephi.io.importer.api.EdgeDraft;
+import org.gephi.io.importer.api.Issue;
+import org.gephi.io.importer.api.NodeDraft;
+import org.gephi.io.importer.api.Report;
+import org.gephi.io.importer.spi.FileImporter;
+import org.gephi.utils.longtask.spi.LongTask;
+import org.gephi.utils.progress.Progress;
+import org.gephi.utils.progress.ProgressTicket;
+
+/**
+ * $branding_name importer, reading an edge list with one
+ * <em>source target [weight]</em> edge per line.
+ * <p>
+ * The file is read line by line and each edge is added to the container
+ * right away, so the file is never held in memory and large files import in
+ * constant extra memory.
+ */
+public class ${class_prefix}Importer implements FileImporter, LongTask {
+
+    private Reader reader;
+    private ContainerLoader container;
+    private Report report;
+    private volatile boolean cancelled;
+    private ProgressTicket progressTicket;
+
+    @Override
+    public void setReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean execute(ContainerLoader loader) {
+        this.container = loader;
+        this.report = new Report();
+        cancelled = false;
+        Progress.start(progressTicket);
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        try {
+            String line;
+            int lineNumber = 0;
+            while (!cancelled && (line = lines.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '%') {
+                    continue;
+                }
+                String[] parts = line.split("[\\s,;]+");
+                if (parts.length < 2) {
+                    report.logIssue(new Issue("Line " + lineNumber + " ignored, it should contain a source and a target", Issue.Level.WARNING));
+                    continue;
+                }
+                EdgeDraft edge = container.factory().newEdgeDraft();
+                edge.setSource(getNode(parts[0]));
+                edge.setTarget(getNode(parts[1]));
+                if (parts.length > 2) {
+                    try {
+                        edge.setWeight(Double.parseDouble(parts[2]));
+                    } catch (NumberFormatException ex) {
+                        report.logIssue(new Issue("Line " + lineNumber + ": invalid weight '" + parts[2] + "'", Issue.Level.WARNING));
+                    }
+                }
+                container.addEdge(edge);
+            }
+        } catch (IOException ex) {
+            report.logIssue(new Issue(ex, Issue.Level.CRITICAL));
+            return false;
+        } finally {
+            Progress.finish(progressTicket);
+        }
+        return !cancelled;
+    }
+
+    private NodeDraft getNode(String id) {
+        if (container.nodeExists(id)) {
+            return container.getNode(id);
+        }
+        NodeDraft node = container.factory().newNodeDraft(id);
+        container.addNode(node);
+        return node;
+    }
+
+    @Override
+    public ContainerLoader getContainer() {
+        return container;
+    }
+
+    @Override
+    public Report getReport() {
+        return report;
+    }
+
+    @Override
+    public boolean cancel() {
+        cancelled = true;
+        return true;
+    }
+
+    @Override
+    public void setProgressTicket(ProgressTicket progressTicket) {
+        this.progressTicket = progressTicket;
+    }
+}
@@ -0,0 +1,36 @@
+package ${package_name};
+
+import org.gephi.io.importer.api.FileType;
+import org.gephi.io.importer.spi.FileImporter;
+import org.gephi.io.importer.spi.FileImporterBuilder;
+import org.openide.filesystems.FileObject;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Registers the $branding_name importer for <em>.edgelist</em> files.
+ */
+@ServiceProvider(service = FileImporterBuilder.class)
+public class ${class_prefix}ImporterBuilder implements FileImporterBuilder {
+
+    public static final String EXTENSION = "edgelist";
+
+    @Override
+    public FileImporter buildImporter() {
+        return new ${class_prefix}Importer();
+    }
+
+    @Override
+    public String getName() {
+        return "$branding_name";
+    }
+
+    @Override
+    public FileType[] getFileTypes() {
+        return new FileType[]{new FileType("." + EXTENSION, "$branding_name")};
+    }
+
+    @Override
+    public boolean isMatchingImporter(FileObject fileObject) {
+        return fileObject.getExt().equalsIgnoreCase(EXTENSION);
+    }
+}
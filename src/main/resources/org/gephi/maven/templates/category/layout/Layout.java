@@ -0,0 +1,207 @@
+package ${package_name};
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Node;
+import org.gephi.layout.spi.Layout;
+import org.gephi.layout.spi.LayoutBuilder;
+import org.gephi.layout.spi.LayoutProperty;
+
+/**
+ * $branding_name layout.
+ * <p>
+ * Each step computes the repulsion between all nodes in parallel on the
+ * common fork-join pool, split in chunks of nodes, then the attraction along
+ * edges.
+ */
+public class ${class_prefix}Layout implements Layout {
+
+    // Number of nodes below which a task isn't split anymore
+    private static final int THRESHOLD = 256;
+
+    private final LayoutBuilder builder;
+    private GraphModel graphModel;
+    private boolean converged;
+
+    private Double repulsion;
+    private Double attraction;
+    private Double speed;
+
+    public ${class_prefix}Layout(LayoutBuilder builder) {
+        this.builder = builder;
+        resetPropertiesValues();
+    }
+
+    @Override
+    public void initAlgo() {
+        converged = false;
+    }
+
+    @Override
+    public void setGraphModel(GraphModel graphModel) {
+        this.graphModel = graphModel;
+    }
+
+    @Override
+    public void goAlgo() {
+        Graph graph = graphModel.getGraphVisible();
+        graph.readLock();
+        try {
+            Node[] nodes = graph.getNodes().toArray();
+            double[] dx = new double[nodes.length];
+            double[] dy = new double[nodes.length];
+
+            ForkJoinPool.commonPool().invoke(new RepulsionTask(nodes, dx, dy, 0, nodes.length));
+
+            // Attraction along edges, linear in the number of edges
+            Map<Node, Integer> indices = new HashMap<Node, Integer>(nodes.length * 2);
+            for (int i = 0; i < nodes.length; i++) {
+                indices.put(nodes[i], i);
+            }
+            for (Edge edge : graph.getEdges()) {
+                Integer source = indices.get(edge.getSource());
+                Integer target = indices.get(edge.getTarget());
+                if (source == null || target == null || source.equals(target)) {
+                    continue;
+                }
+                double x = nodes[target].x() - nodes[source].x();
+                double y = nodes[target].y() - nodes[source].y();
+                double force = attraction * edge.getWeight();
+                dx[source] += x * force;
+                dy[source] += y * force;
+                dx[target] -= x * force;
+                dy[target] -= y * force;
+            }
+
+            double maxDisplacement = 0;
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i].isFixed()) {
+                    continue;
+                }
+                double length = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+                double limited = Math.min(length, 10.0) * speed;
+                if (length > 0) {
+                    nodes[i].setX((float) (nodes[i].x() + dx[i] / length * limited));
+                    nodes[i].setY((float) (nodes[i].y() + dy[i] / length * limited));
+                }
+                maxDisplacement = Math.max(maxDisplacement, limited);
+            }
+            converged = maxDisplacement < 0.01;
+        } finally {
+            graph.readUnlock();
+        }
+    }
+
+    @Override
+    public boolean canAlgo() {
+        return !converged;
+    }
+
+    @Override
+    public void endAlgo() {
+        // Nothing to release, each step allocates its own arrays
+    }
+
+    @Override
+    public LayoutProperty[] getProperties() {
+        List<LayoutProperty> properties = new ArrayList<LayoutProperty>();
+        try {
+            properties.add(LayoutProperty.createProperty(this, Double.class, "Repulsion", "$branding_name",
+                    "Strength of the repulsion between nodes", "getRepulsion", "setRepulsion"));
+            properties.add(LayoutProperty.createProperty(this, Double.class, "Attraction", "$branding_name",
+                    "Strength of the attraction along edges", "getAttraction", "setAttraction"));
+            properties.add(LayoutProperty.createProperty(this, Double.class, "Speed", "$branding_name",
+                    "Maximum displacement factor of a step", "getSpeed", "setSpeed"));
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return properties.toArray(new LayoutProperty[0]);
+    }
+
+    @Override
+    public void resetPropertiesValues() {
+        repulsion = 1000.0;
+        attraction = 0.01;
+        speed = 1.0;
+    }
+
+    @Override
+    public LayoutBuilder getBuilder() {
+        return builder;
+    }
+
+    public Double getRepulsion() {
+        return repulsion;
+    }
+
+    public void setRepulsion(Double repulsion) {
+        this.repulsion = repulsion;
+    }
+
+    public Double getAttraction() {
+        return attraction;
+    }
+
+    public void setAttraction(Double attraction) {
+        this.attraction = attraction;
+    }
+
+    public Double getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(Double speed) {
+        this.speed = speed;
+    }
+
+    /**
+     * Repulsion on the nodes between <code>start</code> and <code>end</code>
+     * from all other nodes. Each task writes its own slice of the arrays.
+     */
+    private class RepulsionTask extends RecursiveAction {
+
+        private final Node[] nodes;
+        private final double[] dx;
+        private final double[] dy;
+        private final int start;
+        private final int end;
+
+        RepulsionTask(Node[] nodes, double[] dx, double[] dy, int start, int end) {
+            this.nodes = nodes;
+            this.dx = dx;
+            this.dy = dy;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > THRESHOLD) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new RepulsionTask(nodes, dx, dy, start, middle), new RepulsionTask(nodes, dx, dy, middle, end));
+                return;
+            }
+            double strength = repulsion;
+            for (int i = start; i < end; i++) {
+                Node node = nodes[i];
+                for (Node other : nodes) {
+                    if (other == node) {
+                        continue;
+                    }
+                    double x = node.x() - other.x();
+                    double y = node.y() - other.y();
+                    double distance2 = Math.max(x * x + y * y, 0.01);
+                    dx[i] += x / distance2 * strength;
+                    dy[i] += y / distance2 * strength;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ${package_name};
+
+import javax.swing.Icon;
+import javax.swing.JPanel;
+import org.gephi.layout.spi.Layout;
+import org.gephi.layout.spi.LayoutBuilder;
+import org.gephi.layout.spi.LayoutUI;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Registers the $branding_name layout.
+ */
+@ServiceProvider(service = LayoutBuilder.class)
+public class ${class_prefix}LayoutBuilder implements LayoutBuilder {
+
+    private final LayoutUI ui = new LayoutUI() {
+
+        @Override
+        public String getDescription() {
+            return "$branding_name";
+        }
+
+        @Override
+        public Icon getIcon() {
+            return null;
+        }
+
+        @Override
+        public JPanel getSimplePanel(Layout layout) {
+            return null;
+        }
+
+        @Override
+        public int getQualityRank() {
+            return -1;
+        }
+
+        @Override
+        public int getSpeedRank() {
+            return -1;
+        }
+    };
+
+    @Override
+    public String getName() {
+        return "$branding_name";
+    }
+
+    @Override
+    public LayoutUI getUI() {
+        return ui;
+    }
+
+    @Override
+    public Layout buildLayout() {
+        return new ${class_prefix}Layout(this);
+    }
+}
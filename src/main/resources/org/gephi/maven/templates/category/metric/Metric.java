@@ -0,0 +1,136 @@
+package ${package_name};
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.Table;
+import org.gephi.statistics.spi.Statistics;
+import org.gephi.utils.longtask.spi.LongTask;
+import org.gephi.utils.progress.Progress;
+import org.gephi.utils.progress.ProgressTicket;
+
+/**
+ * $branding_name metric.
+ * <p>
+ * The value of each node is computed in parallel on the common fork-join
+ * pool, split in chunks of nodes, while the graph is read-locked. Values are
+ * written to the node table once all are computed. Tasks stop as soon as the
+ * metric is cancelled.
+ */
+public class ${class_prefix}Metric implements Statistics, LongTask {
+
+    public static final String COLUMN_ID = "${column_id}";
+    // Number of nodes below which a task isn't split anymore
+    private static final int THRESHOLD = 1024;
+
+    private volatile boolean cancelled;
+    private ProgressTicket progressTicket;
+    private double average;
+
+    @Override
+    public void execute(GraphModel graphModel) {
+        cancelled = false;
+        Graph graph = graphModel.getGraphVisible();
+        Node[] nodes;
+        double[] values;
+        graph.readLock();
+        try {
+            nodes = graph.getNodes().toArray();
+            values = new double[nodes.length];
+            Progress.start(progressTicket, nodes.length);
+            ForkJoinPool.commonPool().invoke(new NodeTask(graph, nodes, values, 0, nodes.length, new AtomicInteger()));
+        } finally {
+            graph.readUnlock();
+        }
+        if (cancelled) {
+            Progress.finish(progressTicket);
+            return;
+        }
+
+        Table nodeTable = graphModel.getNodeTable();
+        Column column = nodeTable.getColumn(COLUMN_ID);
+        if (column == null) {
+            column = nodeTable.addColumn(COLUMN_ID, "$branding_name", Double.class, 0.0);
+        }
+        double sum = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].setAttribute(column, values[i]);
+            sum += values[i];
+        }
+        average = nodes.length > 0 ? sum / nodes.length : 0;
+        Progress.finish(progressTicket);
+    }
+
+    /**
+     * Computes the value of a node. Called concurrently, it should only read
+     * the graph. The example computes the average degree of the neighbors.
+     */
+    protected double computeNode(Graph graph, Node node) {
+        int degree = 0;
+        double sum = 0;
+        for (Node neighbor : graph.getNeighbors(node)) {
+            sum += graph.getDegree(neighbor);
+            degree++;
+        }
+        return degree > 0 ? sum / degree : 0;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    @Override
+    public String getReport() {
+        return "<html><body><h1>$branding_name</h1><hr><br>Average: " + average + "</body></html>";
+    }
+
+    @Override
+    public boolean cancel() {
+        cancelled = true;
+        return true;
+    }
+
+    @Override
+    public void setProgressTicket(ProgressTicket progressTicket) {
+        this.progressTicket = progressTicket;
+    }
+
+    private class NodeTask extends RecursiveAction {
+
+        private final Graph graph;
+        private final Node[] nodes;
+        private final double[] values;
+        private final int start;
+        private final int end;
+        private final AtomicInteger done;
+
+        NodeTask(Graph graph, Node[] nodes, double[] values, int start, int end, AtomicInteger done) {
+            this.graph = graph;
+            this.nodes = nodes;
+            this.values = values;
+            this.start = start;
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            if (end - start > THRESHOLD) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new NodeTask(graph, nodes, values, start, middle, done), new NodeTask(graph, nodes, values, middle, end, done));
+                return;
+            }
+            for (int i = start; i < end && !cancelled; i++) {
+                values[i] = computeNode(graph, nodes[i]);
+            }
+            Progress.progress(progressTicket, done.addAndGet(end - start));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ${package_name};
+
+import org.gephi.statistics.spi.Statistics;
+import org.gephi.statistics.spi.StatisticsBuilder;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Registers the $branding_name metric.
+ */
+@ServiceProvider(service = StatisticsBuilder.class)
+public class ${class_prefix}MetricBuilder implements StatisticsBuilder {
+
+    @Override
+    public String getName() {
+        return "$branding_name";
+    }
+
+    @Override
+    public Statistics getStatistics() {
+        return new ${class_prefix}Metric();
+    }
+
+    @Override
+    public Class<? extends Statistics> getStatisticsClass() {
+        return ${class_prefix}Metric.class;
+    }
+}
@@ -0,0 +1,60 @@
+package ${package_name};
+
+import javax.swing.JPanel;
+import org.gephi.statistics.spi.Statistics;
+import org.gephi.statistics.spi.StatisticsUI;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Shows the $branding_name metric in the Statistics panel.
+ */
+@ServiceProvider(service = StatisticsUI.class)
+public class ${class_prefix}MetricUI implements StatisticsUI {
+
+    private ${class_prefix}Metric metric;
+
+    @Override
+    public JPanel getSettingsPanel() {
+        return null;
+    }
+
+    @Override
+    public void setup(Statistics statistics) {
+        this.metric = (${class_prefix}Metric) statistics;
+    }
+
+    @Override
+    public void unsetup() {
+        metric = null;
+    }
+
+    @Override
+    public Class<? extends Statistics> getStatisticsClass() {
+        return ${class_prefix}Metric.class;
+    }
+
+    @Override
+    public String getValue() {
+        return metric != null ? String.format("%.3f", metric.getAverage()) : "";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "$branding_name";
+    }
+
+    @Override
+    public String getShortDescription() {
+        return "$branding_name";
+    }
+
+    @Override
+    public String getCategory() {
+        return StatisticsUI.CATEGORY_NODE_OVERVIEW;
+    }
+
+    @Override
+    public int getPosition() {
+        return 1000;
+    }
+}
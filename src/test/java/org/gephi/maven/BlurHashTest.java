@@ -0,0 +1,45 @@
+package org.gephi.maven;
+
+import java.awt.image.BufferedImage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlurHashTest {
+
+  @Test
+  public void testSolidColor() {
+    BufferedImage image = new BufferedImage(16, 12, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        image.setRGB(x, y, 0xff0000);
+      }
+    }
+    String hash = BlurHash.encode(image, 4, 3);
+    Assert.assertEquals(28, hash.length());
+    // Size flag for 4x3 components
+    Assert.assertEquals('L', hash.charAt(0));
+    // Red average color
+    Assert.assertEquals(0xff0000, decode83(hash.substring(2, 6)));
+  }
+
+  @Test
+  public void testSingleComponent() {
+    BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+    Assert.assertEquals("00", BlurHash.encode(image, 1, 1).substring(0, 2));
+    Assert.assertEquals(6, BlurHash.encode(image, 1, 1).length());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidComponents() {
+    BlurHash.encode(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), 10, 1);
+  }
+
+  private static int decode83(String str) {
+    String characters = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+    int value = 0;
+    for (char c : str.toCharArray()) {
+      value = value * 83 + characters.indexOf(c);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,49 @@
+package org.gephi.maven;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BundledLibrariesTest {
+
+  @Test
+  public void testDuplicates() {
+    Map<String, List<BundledLibraries.BundledJar>> jars = new LinkedHashMap<String, List<BundledLibraries.BundledJar>>();
+    jars.put("A", list(jar("guava-20.0.jar", "aaa", "com.google.guava:guava", "20.0", 2048)));
+    jars.put("B", list(jar("guava-20.0.jar", "aaa", "com.google.guava:guava", "20.0", 2048)));
+    jars.put("C", list(jar("guava-21.0.jar", "bbb", "com.google.guava:guava", "21.0", 2048)));
+
+    List<String> messages = BundledLibraries.findDuplicates(jars);
+    Assert.assertEquals(3, messages.size());
+    Assert.assertTrue(messages.get(0).contains("guava-20.0.jar"));
+    Assert.assertTrue(messages.get(0).contains("2.0 KB"));
+    Assert.assertTrue(messages.get(1).contains("different versions"));
+  }
+
+  @Test
+  public void testNoDuplicates() {
+    Map<String, List<BundledLibraries.BundledJar>> jars = new LinkedHashMap<String, List<BundledLibraries.BundledJar>>();
+    jars.put("A", list(jar("foo.jar", "aaa", null, null, 10)));
+    jars.put("B", list(jar("bar.jar", "bbb", null, null, 10)));
+    Assert.assertTrue(BundledLibraries.findDuplicates(jars).isEmpty());
+  }
+
+  private static BundledLibraries.BundledJar jar(String name, String hash, String coordinates, String version, long size) {
+    BundledLibraries.BundledJar jar = new BundledLibraries.BundledJar();
+    jar.name = name;
+    jar.hash = hash;
+    jar.coordinates = coordinates;
+    jar.version = version;
+    jar.size = size;
+    return jar;
+  }
+
+  private static List<BundledLibraries.BundledJar> list(BundledLibraries.BundledJar jar) {
+    List<BundledLibraries.BundledJar> list = new ArrayList<BundledLibraries.BundledJar>();
+    list.add(jar);
+    return list;
+  }
+}
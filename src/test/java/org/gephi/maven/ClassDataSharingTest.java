@@ -0,0 +1,47 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassDataSharingTest {
+
+  @Test
+  public void testArchiveFollowsJars() throws Exception {
+    File folder = Files.createTempDirectory("cds").toFile();
+    try {
+      testArchiveFollowsJars(folder);
+    } finally {
+      FileUtils.deleteDirectory(folder);
+    }
+  }
+
+  private void testArchiveFollowsJars(File folder) throws Exception {
+    File cluster = new File(folder, "cluster/modules");
+    cluster.mkdirs();
+    File jar = new File(cluster, "org-foo.jar");
+    Files.write(jar.toPath(), new byte[]{1});
+    List<File> folders = Arrays.asList(new File(folder, "cluster"));
+
+    ClassDataSharing cds = new ClassDataSharing(new File(folder, "archives"), new SystemStreamLog());
+    List<String> args = cds.getArguments(folders);
+    // JVMs older than 13 don't start with unknown options otherwise
+    Assert.assertEquals("-J-XX:+IgnoreUnrecognizedVMOptions", args.get(0));
+    Assert.assertTrue(args.get(1).startsWith("-J-XX:ArchiveClassesAtExit="));
+
+    // The JVM writes the archive at exit
+    File archive = new File(args.get(1).substring(args.get(1).indexOf('=') + 1));
+    Files.write(archive.toPath(), new byte[]{0});
+    Assert.assertTrue(cds.getArguments(folders).get(1).startsWith("-J-XX:SharedArchiveFile="));
+
+    // A changed jar invalidates the archive
+    Files.write(jar.toPath(), new byte[]{1, 2});
+    Assert.assertTrue(cds.getArguments(folders).get(1).startsWith("-J-XX:ArchiveClassesAtExit="));
+    Assert.assertFalse(archive.exists());
+  }
+}
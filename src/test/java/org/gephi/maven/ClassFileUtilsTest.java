@@ -0,0 +1,34 @@
+package org.gephi.maven;
+
+import java.io.InputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassFileUtilsTest {
+
+  @Test
+  public void testStaticInitializer() throws Exception {
+    Assert.assertTrue(getStaticInitializerSize(WithStaticInitializer.class) > 0);
+    Assert.assertEquals(0, getStaticInitializerSize(WithoutStaticInitializer.class));
+  }
+
+  private static int getStaticInitializerSize(Class<?> cls) throws Exception {
+    InputStream is = cls.getResourceAsStream(cls.getName().substring(cls.getName().lastIndexOf('.') + 1) + ".class");
+    try {
+      return ClassFileUtils.getStaticInitializerSize(is);
+    } finally {
+      is.close();
+    }
+  }
+
+  static class WithStaticInitializer {
+
+    static final long[] VALUES = new long[]{1L, 2L, 3L};
+    static final double RATIO = Math.sqrt(2.0);
+  }
+
+  static class WithoutStaticInitializer {
+
+    static final String NAME = "constant";
+  }
+}
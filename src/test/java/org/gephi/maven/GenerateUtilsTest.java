@@ -0,0 +1,43 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GenerateUtilsTest {
+
+  @Test
+  public void testAddModulesToPom() throws Exception {
+    File pom = Files.createTempFile("pom", ".xml").toFile();
+    pom.deleteOnExit();
+    Files.write(pom.toPath(), Arrays.asList(
+        "<project>",
+        "    <modules>",
+        "        <module>modules/Existing</module>",
+        "    </modules>",
+        "</project>"), StandardCharsets.UTF_8);
+
+    GenerateUtils.addModulesToPom(pom, Arrays.asList("First", "Existing", "Second", "First"), new SystemStreamLog());
+
+    List<String> lines = Files.readAllLines(pom.toPath(), StandardCharsets.UTF_8);
+    Assert.assertEquals(Arrays.asList(
+        "<project>",
+        "    <modules>",
+        "        <module>modules/Existing</module>",
+        "        <module>modules/First</module>",
+        "        <module>modules/Second</module>",
+        "    </modules>",
+        "</project>"), lines);
+  }
+
+  @Test
+  public void testGetPackageName() {
+    Assert.assertEquals("my.company", GenerateUtils.getPackageName("my.company"));
+    Assert.assertEquals("org.my_company._3d", GenerateUtils.getPackageName("org.My-Company.3d"));
+  }
+}
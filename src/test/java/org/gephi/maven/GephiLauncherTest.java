@@ -0,0 +1,55 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GephiLauncherTest {
+
+  @Test
+  public void testConfIsUpdatedIdempotently() throws Exception {
+    File gephi = Files.createTempDirectory("gephi").toFile();
+    try {
+      File etc = new File(gephi, "etc");
+      etc.mkdirs();
+      File conf = new File(etc, "gephi.conf");
+      Files.write(conf.toPath(), Arrays.asList(
+          "default_userdir=\"${HOME}/.gephi\"",
+          "default_options=\"--branding gephi -J-Xms64m -J-Xmx512m\"",
+          "#extra_clusters="), StandardCharsets.UTF_8);
+
+      GephiLauncher launcher = new GephiLauncher(gephi, "gephi");
+      launcher.setExtraClusters(Arrays.asList("/a"));
+      List<String> first = Files.readAllLines(conf.toPath(), StandardCharsets.UTF_8);
+      launcher.setExtraClusters(Arrays.asList("/a"));
+      List<String> second = Files.readAllLines(conf.toPath(), StandardCharsets.UTF_8);
+
+      Assert.assertEquals(first, second);
+      Assert.assertEquals(3, second.size());
+      Assert.assertEquals("extra_clusters=/a", second.get(2));
+      Assert.assertEquals("--branding gephi -J-Xms64m -J-Xmx512m", launcher.getConfValue("default_options"));
+    } finally {
+      FileUtils.deleteDirectory(gephi);
+    }
+  }
+
+  @Test
+  public void testJavaVersion() throws Exception {
+    File jdk = Files.createTempDirectory("jdk").toFile();
+    try {
+      File release = new File(jdk, "release");
+      Files.write(release.toPath(), Arrays.asList("JAVA_VERSION=\"1.8.0_292\""), StandardCharsets.UTF_8);
+      Assert.assertEquals(8, GephiLauncher.getJavaVersion(jdk));
+      Files.write(release.toPath(), Arrays.asList("IMPLEMENTOR=\"Eclipse Adoptium\"", "JAVA_VERSION=\"17.0.8\""), StandardCharsets.UTF_8);
+      Assert.assertEquals(17, GephiLauncher.getJavaVersion(jdk));
+      Assert.assertEquals(-1, GephiLauncher.getJavaVersion(new File(jdk, "missing")));
+    } finally {
+      FileUtils.deleteDirectory(jdk);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HeapProfilesTest {
+
+  private static final long GB = 1024L * 1024 * 1024;
+
+  @Test
+  public void testOptions() throws Exception {
+    List<String> small = HeapProfiles.getOptions("small", 16 * GB, null, null, 17);
+    Assert.assertEquals(Arrays.asList("-J-Xms256m", "-J-Xmx1024m", "-J-XX:+UseG1GC"), small);
+
+    List<String> large = HeapProfiles.getOptions("large-graph", 16 * GB, null, null, 17);
+    Assert.assertEquals("-J-Xms12288m", large.get(0));
+    Assert.assertEquals("-J-Xmx12288m", large.get(1));
+
+    List<String> lowLatency = HeapProfiles.getOptions("low-latency", 16 * GB, "4g", new File("gc.log"), 17);
+    Assert.assertTrue(lowLatency.contains("-J-Xmx4g"));
+    Assert.assertTrue(lowLatency.contains("-J-XX:+UseZGC"));
+    Assert.assertTrue(lowLatency.get(lowLatency.size() - 1).startsWith("-J-Xlog:gc*:file="));
+
+    // JDK 8 doesn't start with -Xlog
+    List<String> jdk8 = HeapProfiles.getOptions("small", 16 * GB, null, new File("gc.log"), 8);
+    Assert.assertTrue(jdk8.get(jdk8.size() - 1).startsWith("-J-Xloggc:"));
+  }
+
+  @Test(expected = MojoExecutionException.class)
+  public void testUnknownProfile() throws Exception {
+    HeapProfiles.getOptions("huge", 16 * GB, null, null, 17);
+  }
+}
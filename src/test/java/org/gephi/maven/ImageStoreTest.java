@@ -0,0 +1,80 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.plexus.util.FileUtils;
+import org.gephi.maven.json.Image;
+import org.gephi.maven.json.ImageManifest;
+import org.gephi.maven.json.PluginMetadata;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImageStoreTest {
+
+  @Test
+  public void testStoreAndManifest() throws Exception {
+    File folder = Files.createTempDirectory("images").toFile();
+    try {
+      File imgs = new File(folder, "imgs");
+      ImageStore store = new ImageStore(imgs, "imgs/", new SystemStreamLog());
+
+      // Identical content is stored once
+      String first = store.store(write(folder, "a.png", new byte[]{1, 2, 3}));
+      String second = store.store(write(folder, "b.png", new byte[]{1, 2, 3}));
+      String other = store.store(write(folder, "c.png", new byte[]{4}));
+      Assert.assertEquals(first, second);
+      Assert.assertTrue(first.matches("imgs/[0-9a-f]{16}\\.png"));
+      Assert.assertFalse(new File(folder, "b.png").exists());
+
+      // A published image not referenced anymore is orphaned, even if it's
+      // not local
+      PluginMetadata previous = createPlugin("imgs/0123456789abcdef.png");
+      store.addPublished(Arrays.asList(previous));
+      PluginMetadata skipped = createPlugin("imgs/fedcba9876543210.png");
+      PluginMetadata updated = createPlugin(first);
+      File manifestFile = new File(imgs, "manifest.json");
+      ImageManifest manifest = store.writeManifest(manifestFile, Arrays.asList(skipped, updated));
+      Assert.assertTrue(manifestFile.exists());
+      Assert.assertEquals(Arrays.asList(first, "imgs/fedcba9876543210.png"), sorted(manifest.live));
+      Assert.assertEquals(sorted(Arrays.asList("imgs/0123456789abcdef.png", other)), sorted(manifest.orphaned));
+
+      // Local orphans are removed, live files are kept
+      Assert.assertTrue(new File(imgs, first.substring(5)).exists());
+      Assert.assertFalse(new File(imgs, other.substring(5)).exists());
+
+      // The next build only carries over the files that were live
+      ImageStore next = new ImageStore(imgs, "imgs/", new SystemStreamLog());
+      next.addPublished(manifest);
+      ImageManifest nextManifest = next.writeManifest(manifestFile, Arrays.asList(updated));
+      Assert.assertEquals(Arrays.asList(first), nextManifest.live);
+      Assert.assertEquals(Arrays.asList("imgs/fedcba9876543210.png"), nextManifest.orphaned);
+    } finally {
+      FileUtils.deleteDirectory(folder);
+    }
+  }
+
+  private static PluginMetadata createPlugin(String imageUrl) {
+    Image image = new Image();
+    image.image = imageUrl;
+    PluginMetadata pm = new PluginMetadata();
+    pm.images = Arrays.asList(image);
+    return pm;
+  }
+
+  private static List<String> sorted(List<String> list) {
+    List<String> result = new ArrayList<String>(list);
+    Collections.sort(result);
+    return result;
+  }
+
+  private static File write(File folder, String name, byte[] content) throws Exception {
+    File file = new File(folder, name);
+    Files.write(file.toPath(), content);
+    return file;
+  }
+}
@@ -0,0 +1,67 @@
+package org.gephi.maven;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JfrSummaryTest {
+
+  @Test
+  public void testExecutionSamples() {
+    JfrSummary summary = new JfrSummary(Arrays.asList("org.foo."));
+    feed(summary,
+        "jdk.ExecutionSample {",
+        "  startTime = 22:15:24.761",
+        "  stackTrace = [",
+        "    java.lang.Math.sqrt(double) line: 10",
+        "    org.foo.Layout.goAlgo() line: 3",
+        "    org.foo.Layout.run() line: 4",
+        "  ]",
+        "}",
+        "",
+        "jdk.ExecutionSample {",
+        "  stackTrace = [",
+        "    org.foo.Layout.run() line: 4",
+        "  ]",
+        "}",
+        "jdk.ExecutionSample {",
+        "  stackTrace = [",
+        "    org.foo.Layout.goAlgo() line: 3",
+        "    ...",
+        "  ]",
+        "}",
+        "jdk.ExecutionSample {",
+        "  stackTrace = [",
+        "    java.lang.Thread.run() line: 1",
+        "  ]",
+        "}");
+    List<Map.Entry<String, Long>> top = summary.getTop(10);
+    Assert.assertEquals(2, top.size());
+    Assert.assertEquals("org.foo.Layout.goAlgo", top.get(0).getKey());
+    Assert.assertEquals(Long.valueOf(2), top.get(0).getValue());
+    Assert.assertEquals("org.foo.Layout.run", top.get(1).getKey());
+  }
+
+  @Test
+  public void testAllocationWeight() {
+    JfrSummary summary = new JfrSummary(Arrays.asList("org.foo."));
+    feed(summary,
+        "jdk.ObjectAllocationSample {",
+        "  objectClass = byte[] (classLoader = bootstrap)",
+        "  weight = 1.5 kB",
+        "  stackTrace = [",
+        "    org.foo.Importer.<init>(File) line: 12",
+        "  ]",
+        "}");
+    Assert.assertEquals(Long.valueOf(1536), summary.getTop(1).get(0).getValue());
+    Assert.assertEquals("org.foo.Importer.<init>", summary.getTop(1).get(0).getKey());
+  }
+
+  private static void feed(JfrSummary summary, String... lines) {
+    for (String line : lines) {
+      summary.consumeLine(line);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LogPumpTest {
+
+  @Test
+  public void testFilters() throws Exception {
+    RecordingLog log = new RecordingLog();
+    LogPump pump = new LogPump(log, 100, "INFO", null, Pattern.compile("noise"), null, 0, 0);
+    pump.consumeLine("INFO [org.foo]: started");
+    pump.consumeLine("FINE [org.foo]: details");
+    pump.consumeLine("  hidden continuation of a fine line");
+    pump.consumeLine("WARNING [org.foo]: careful");
+    pump.consumeLine("\tat org.foo.Bar.run(Bar.java:1)");
+    pump.consumeLine("INFO [org.foo]: noise");
+    pump.consumeLine("INFO [org.foo]: repeated");
+    pump.consumeLine("INFO [org.foo]: repeated");
+    pump.consumeLine("INFO [org.foo]: repeated");
+    // Not collapsed with the previous run, a filtered line is in between
+    pump.consumeLine("INFO [org.foo]: noise");
+    pump.consumeLine("INFO [org.foo]: repeated");
+    pump.consumeLine("SEVERE [org.foo]: failed");
+    pump.close();
+
+    List<String> expected = new ArrayList<String>();
+    expected.add("info: INFO [org.foo]: started");
+    expected.add("warn: WARNING [org.foo]: careful");
+    expected.add("warn: \tat org.foo.Bar.run(Bar.java:1)");
+    expected.add("info: INFO [org.foo]: repeated");
+    expected.add("info: (previous line repeated 2 more time(s))");
+    expected.add("info: INFO [org.foo]: repeated");
+    expected.add("error: SEVERE [org.foo]: failed");
+    Assert.assertEquals(expected, log.messages);
+  }
+
+  @Test
+  public void testRollingFile() throws Exception {
+    File folder = Files.createTempDirectory("logpump").toFile();
+    File file = new File(folder, "console.log");
+    LogPump pump = new LogPump(new RecordingLog(), 100, "SEVERE", null, null, file, 20, 2);
+    for (int i = 0; i < 10; i++) {
+      pump.consumeLine("line " + i + " abcdefgh");
+    }
+    pump.close();
+
+    Assert.assertTrue(new File(folder, "console.log.1").exists());
+    Assert.assertTrue(new File(folder, "console.log.2").exists());
+    Assert.assertFalse(new File(folder, "console.log.3").exists());
+    List<String> lines = Files.readAllLines(new File(folder, "console.log.1").toPath(), StandardCharsets.UTF_8);
+    Assert.assertEquals("line 9 abcdefgh", lines.get(lines.size() - 1));
+  }
+
+  private static class RecordingLog extends SystemStreamLog {
+
+    private final List<String> messages = new ArrayList<String>();
+
+    @Override
+    public void info(CharSequence content) {
+      messages.add("info: " + content);
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+      messages.add("warn: " + content);
+    }
+
+    @Override
+    public void error(CharSequence content) {
+      messages.add("error: " + content);
+    }
+  }
+}
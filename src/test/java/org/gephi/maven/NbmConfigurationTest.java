@@ -0,0 +1,57 @@
+package org.gephi.maven;
+
+import java.util.List;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.gephi.maven.json.Author;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NbmConfigurationTest {
+
+  @Test
+  public void testMultipleAuthors() {
+    List<Author> authors = NbmConfiguration.parseAuthors("Jane Doe, John Doe", "jane@gephi.org", null);
+    Assert.assertEquals(2, authors.size());
+    Assert.assertEquals("Jane Doe", authors.get(0).name);
+    Assert.assertEquals("jane@gephi.org", authors.get(0).email);
+    Assert.assertEquals("John Doe", authors.get(1).name);
+    Assert.assertNull(authors.get(1).email);
+  }
+
+  @Test
+  public void testNoAuthor() {
+    Assert.assertNull(NbmConfiguration.parseAuthors(null, null, null));
+    Assert.assertNull(NbmConfiguration.parseAuthors(" , ", null, null));
+  }
+
+  @Test
+  public void testProjectConfiguration() {
+    Xpp3Dom config = new Xpp3Dom("configuration");
+    config.addChild(child("licenseName", "Apache 2.0"));
+    config.addChild(child("author", "Jane Doe"));
+    config.addChild(child("authorUrl", "https://gephi.org"));
+    Plugin plugin = new Plugin();
+    plugin.setGroupId("org.apache.netbeans.utilities");
+    plugin.setArtifactId("nbm-maven-plugin");
+    plugin.setConfiguration(config);
+    Model model = new Model();
+    model.setBuild(new Build());
+    model.getBuild().addPlugin(plugin);
+    MavenProject project = new MavenProject(model);
+
+    Assert.assertEquals("Apache 2.0", MetadataUtils.getLicenseName(project));
+    Assert.assertNull(MetadataUtils.getHomepage(project));
+    Assert.assertEquals("https://gephi.org", MetadataUtils.getAuthors(project).get(0).link);
+    Assert.assertTrue(NbmConfiguration.get(project) == NbmConfiguration.get(project));
+  }
+
+  private static Xpp3Dom child(String name, String value) {
+    Xpp3Dom dom = new Xpp3Dom(name);
+    dom.setValue(value);
+    return dom;
+  }
+}
@@ -0,0 +1,75 @@
+package org.gephi.maven;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import javax.imageio.ImageIO;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PngOptimizerTest {
+
+  @Test
+  public void testPaletteImage() throws Exception {
+    BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_ARGB);
+    int[] colors = new int[]{0xffff0000, 0xff00ff00, 0x800000ff, 0x00000000};
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        image.setRGB(x, y, colors[(x / 8 + y / 8) % colors.length]);
+      }
+    }
+    byte[] optimized = PngOptimizer.encode(image);
+    assertSamePixels(image, optimized);
+    Assert.assertTrue(optimized.length < defaultEncoding(image).length);
+  }
+
+  @Test
+  public void testTruecolorImage() throws Exception {
+    BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        image.setRGB(x, y, (x * 6) << 16 | (y * 8) << 8 | (x * y) & 0xff);
+      }
+    }
+    assertSamePixels(image, PngOptimizer.encode(image));
+  }
+
+  @Test
+  public void testGrayImage() throws Exception {
+    BufferedImage image = new BufferedImage(300, 20, BufferedImage.TYPE_BYTE_GRAY);
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        image.getRaster().setSample(x, y, 0, x % 256);
+      }
+    }
+    BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(PngOptimizer.encode(image)));
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        Assert.assertEquals(image.getRaster().getSample(x, y, 0), decoded.getRaster().getSample(x, y, 0));
+      }
+    }
+  }
+
+  private static void assertSamePixels(BufferedImage expected, byte[] png) throws Exception {
+    BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+    Assert.assertEquals(expected.getWidth(), decoded.getWidth());
+    Assert.assertEquals(expected.getHeight(), decoded.getHeight());
+    for (int y = 0; y < expected.getHeight(); y++) {
+      for (int x = 0; x < expected.getWidth(); x++) {
+        int e = expected.getRGB(x, y);
+        int d = decoded.getRGB(x, y);
+        if ((e >>> 24) == 0) {
+          Assert.assertEquals(0, d >>> 24);
+        } else {
+          Assert.assertEquals(e, d);
+        }
+      }
+    }
+  }
+
+  private static byte[] defaultEncoding(BufferedImage image) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", out);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,39 @@
+package org.gephi.maven;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SizeBudgetsTest {
+
+  @Test
+  public void testModuleBudgets() throws Exception {
+    File folder = Files.createTempDirectory("budgets").toFile();
+    Model model = new Model();
+    model.setArtifactId("foo");
+    model.setVersion("1.0");
+    MavenProject module = new MavenProject(model);
+    module.setFile(new File(folder, "pom.xml"));
+
+    Files.write(new File(folder, "README.md").toPath(), new byte[2048]);
+    File img = new File(folder, "src/img");
+    img.mkdirs();
+    ImageIO.write(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), "png", new File(img, "screenshot.png"));
+
+    SizeBudgets budgets = new SizeBudgets(0, 0, 0, 0, 1000, 1024, new SystemStreamLog());
+    List<String> exceeded = budgets.checkModule(module);
+    Assert.assertEquals(2, exceeded.size());
+    Assert.assertTrue(exceeded.get(0).contains("5000 pixels"));
+    Assert.assertTrue(exceeded.get(1).contains("README.md"));
+    Assert.assertEquals(Long.valueOf(2048), budgets.getSizes().get(0).readme);
+
+    Assert.assertTrue(new SizeBudgets(0, 0, 0, 0, 0, 0, new SystemStreamLog()).checkModule(module).isEmpty());
+  }
+}
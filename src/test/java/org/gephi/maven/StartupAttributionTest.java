@@ -0,0 +1,45 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.gephi.maven.json.ModuleStartup;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StartupAttributionTest {
+
+  @Test
+  public void testAttribution() throws Exception {
+    File log = Files.createTempFile("gephi-startup", ".log").toFile();
+    log.deleteOnExit();
+    List<String> lines = Arrays.asList(
+        StartupAttribution.formatLine(100, "INFO: Turning on modules:"),
+        StartupAttribution.formatLine(150, "FINE: enabling org.foo.bar"),
+        StartupAttribution.formatLine(180, "FINE: loading layer of org.foo"),
+        StartupAttribution.formatLine(200, "FINE: something else"),
+        StartupAttribution.formatLine(300, "ModuleInstall for org.foo.bar started"),
+        StartupAttribution.formatLine(320, "unrelated"),
+        StartupAttribution.formatLine(700, "ModuleInstall for org.foo.bar finished"),
+        "not timestamped org.foo");
+    Files.write(log.toPath(), lines, StandardCharsets.UTF_8);
+
+    StartupAttribution attribution = new StartupAttribution(Arrays.asList("org.foo", "org.foo.bar"));
+    attribution.parse(log);
+    List<ModuleStartup> results = attribution.getResults();
+    Assert.assertEquals(2, results.size());
+
+    ModuleStartup bar = results.get(0);
+    Assert.assertEquals("org.foo.bar", bar.module);
+    Assert.assertEquals(30, bar.enable_ms);
+    Assert.assertEquals(400, bar.installer_ms);
+    Assert.assertEquals(430, bar.total_ms);
+
+    ModuleStartup foo = results.get(1);
+    Assert.assertEquals("org.foo", foo.module);
+    Assert.assertEquals(20, foo.layers_ms);
+    Assert.assertEquals(20, foo.total_ms);
+  }
+}
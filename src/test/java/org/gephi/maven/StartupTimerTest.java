@@ -0,0 +1,48 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.plexus.util.cli.Commandline;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class StartupTimerTest {
+
+  @Test
+  public void testPercentile() {
+    Assert.assertEquals(3, StartupTimer.percentile(Arrays.asList(5L, 1L, 3L, 2L, 4L), 50));
+    Assert.assertEquals(5, StartupTimer.percentile(Arrays.asList(5L, 1L, 3L, 2L, 4L), 90));
+    Assert.assertEquals(1, StartupTimer.percentile(Arrays.asList(5L, 1L, 3L, 2L, 4L), 0));
+    Assert.assertEquals(7, StartupTimer.percentile(Arrays.asList(7L), 90));
+  }
+
+  @Test
+  public void testMeasure() throws Exception {
+    Assume.assumeTrue(new File("/bin/sh").exists());
+    Commandline cmdLine = new Commandline();
+    cmdLine.setExecutable("/bin/sh");
+    cmdLine.addArguments(new String[]{"-c", "echo starting; echo Window system shown; exit 0"});
+    StartupTimer timer = new StartupTimer(Pattern.compile("(?i)window system shown"), 10000, new SystemStreamLog());
+    final List<String> lines = new ArrayList<String>();
+    Assert.assertTrue(timer.measure(cmdLine, new StreamConsumer() {
+      @Override
+      public void consumeLine(String line) {
+        synchronized (lines) {
+          lines.add(line);
+        }
+      }
+    }) >= 0);
+    Assert.assertEquals(Arrays.asList("starting", "Window system shown"), lines);
+
+    cmdLine = new Commandline();
+    cmdLine.setExecutable("/bin/sh");
+    cmdLine.addArguments(new String[]{"-c", "exit 1"});
+    Assert.assertEquals(-1, timer.measure(cmdLine));
+  }
+}
@@ -0,0 +1,46 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UserdirTemplatesTest {
+
+  @Test
+  public void testKey() {
+    String key = UserdirTemplates.getKey("0.10.1", Arrays.asList("/a/cluster", "/b/cluster"));
+    Assert.assertTrue(key.startsWith("0.10.1-"));
+    Assert.assertEquals(key, UserdirTemplates.getKey("0.10.1", Arrays.asList("/b/cluster", "/a/cluster")));
+    Assert.assertNotEquals(key, UserdirTemplates.getKey("0.10.1", Arrays.asList("/a/cluster")));
+    Assert.assertNotEquals(key, UserdirTemplates.getKey("0.9.0", Arrays.asList("/a/cluster", "/b/cluster")));
+  }
+
+  @Test
+  public void testCaptureAndRestore() throws Exception {
+    File folder = Files.createTempDirectory("templates").toFile();
+    File userdir = new File(folder, "userdir");
+    new File(userdir, "var/cache").mkdirs();
+    new File(userdir, "var/log").mkdirs();
+    Files.write(new File(userdir, "var/cache/all-layers.dat").toPath(), new byte[]{1, 2, 3});
+    Files.write(new File(userdir, "var/log/messages.log").toPath(), new byte[]{4});
+    Files.write(new File(userdir, "lock").toPath(), new byte[]{5});
+
+    UserdirTemplates templates = new UserdirTemplates(new File(folder, "templates"), new SystemStreamLog());
+    Assert.assertFalse(templates.exists("key"));
+    templates.capture("key", userdir);
+    Assert.assertTrue(templates.exists("key"));
+
+    File restored = new File(folder, "restored");
+    restored.mkdirs();
+    Assert.assertTrue(templates.restore("key", restored));
+    Assert.assertTrue(new File(restored, "var/cache/all-layers.dat").exists());
+    Assert.assertFalse(new File(restored, "var/log").exists());
+    Assert.assertFalse(new File(restored, "lock").exists());
+
+    // Non-empty userdirs are left untouched
+    Assert.assertFalse(templates.restore("key", userdir));
+  }
+}
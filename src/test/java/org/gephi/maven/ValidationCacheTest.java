@@ -0,0 +1,75 @@
+package org.gephi.maven;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ValidationCacheTest {
+
+  @Test
+  public void testFingerprintChanges() throws Exception {
+    File folder = Files.createTempDirectory("validation").toFile();
+    MavenProject module = createModule(folder);
+    File manifest = new File(folder, "manifest.mf");
+    File bundle = new File(folder, "src/main/resources/org/foo/Bundle.properties");
+    bundle.getParentFile().mkdirs();
+    write(manifest, "OpenIDE-Module-Localizing-Bundle: org/foo/Bundle.properties\n");
+    write(bundle, "OpenIDE-Module-Name=Foo\n");
+
+    ValidationCache cache = new ValidationCache(new File(folder, "cache"), "manifest.mf", "1.0", new SystemStreamLog());
+    String fingerprint = cache.fingerprint(module, "license");
+    Assert.assertNotNull(fingerprint);
+    Assert.assertEquals(fingerprint, cache.fingerprint(module, "license"));
+    Assert.assertNotEquals(fingerprint, cache.fingerprint(module, "license,author"));
+
+    write(bundle, "OpenIDE-Module-Name=Bar\n");
+    Assert.assertNotEquals(fingerprint, cache.fingerprint(module, "license"));
+
+    File jar = new File(folder, "target/foo.jar");
+    List<File> artifacts = Arrays.asList(jar);
+    String missing = cache.fingerprint(module, "startup-lint", artifacts);
+    jar.getParentFile().mkdirs();
+    write(jar, "jar");
+    Assert.assertNotEquals(missing, cache.fingerprint(module, "startup-lint", artifacts));
+  }
+
+  @Test
+  public void testPersistedResults() throws Exception {
+    File folder = Files.createTempDirectory("validation").toFile();
+    File cacheFile = new File(folder, "cache");
+    ValidationCache cache = new ValidationCache(cacheFile, "manifest.mf", "1.0", new SystemStreamLog());
+    cache.record("valid", "abc", true);
+    cache.record("invalid", "def", false);
+    cache.recordResult("valid", "startup-lint", "{\"estimated_ms\":5}");
+    cache.save();
+
+    ValidationCache loaded = new ValidationCache(cacheFile, "manifest.mf", "1.0", new SystemStreamLog());
+    Assert.assertTrue(loaded.isUpToDate("valid", "abc"));
+    Assert.assertFalse(loaded.isUpToDate("valid", "xyz"));
+    Assert.assertFalse(loaded.isUpToDate("invalid", "def"));
+    Assert.assertEquals("{\"estimated_ms\":5}", loaded.getResult("valid", "startup-lint"));
+    Assert.assertNull(loaded.getResult("valid", "duplicate-libraries"));
+    loaded.recordResult("valid", "startup-lint", null);
+    Assert.assertNull(loaded.getResult("valid", "startup-lint"));
+  }
+
+  private static MavenProject createModule(File folder) {
+    Model model = new Model();
+    model.setGroupId("org.gephi");
+    model.setArtifactId("foo");
+    MavenProject project = new MavenProject(model);
+    project.setFile(new File(folder, "pom.xml"));
+    return project;
+  }
+
+  private static void write(File file, String content) throws Exception {
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+}